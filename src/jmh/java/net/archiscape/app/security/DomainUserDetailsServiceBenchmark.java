@@ -0,0 +1,44 @@
+package net.archiscape.app.security;
+
+import java.util.concurrent.TimeUnit;
+import net.archiscape.app.ArchiscapeApp;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Benchmarks {@link DomainUserDetailsService#loadUserByUsername(String)} against the in-memory H2 database used by the
+ * integration tests, which holds the default "admin" and "user" accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainUserDetailsServiceBenchmark {
+
+    @Param({ "admin", "admin@localhost" })
+    private String login;
+
+    private ConfigurableApplicationContext context;
+
+    private DomainUserDetailsService domainUserDetailsService;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ArchiscapeApp.class).properties("server.port=0", "logging.level.ROOT=WARN").run();
+        domainUserDetailsService = context.getBean(DomainUserDetailsService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return domainUserDetailsService.loadUserByUsername(login);
+    }
+}
@@ -0,0 +1,64 @@
+package net.archiscape.app.security.jwt;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.security.UserActivityTracker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Benchmarks the {@link JWTFilter} on an authenticated request, against a chain doing nothing. The activity of the
+ * user is recorded, never flushed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {};
+
+    @Param({ "1", "5", "20", "50" })
+    private int authorityCount;
+
+    @Param({ "true", "false" })
+    private boolean tokenCacheEnabled;
+
+    private JWTFilter jwtFilter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        TokenProvider tokenProvider = TokenProviderBenchmark.createTokenProvider(tokenCacheEnabled, false, authorityCount);
+        String jwt = tokenProvider.createToken(TokenProviderBenchmark.createAuthentication(authorityCount), false);
+        UserActivityTracker userActivityTracker = new UserActivityTracker(
+            mock(UserRepository.class),
+            mock(PlatformTransactionManager.class),
+            new ApplicationProperties()
+        );
+        jwtFilter = new JWTFilter(tokenProvider, userActivityTracker);
+        request = new MockHttpServletRequest("GET", "/api/account");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void doFilter() throws IOException, ServletException {
+        jwtFilter.doFilter(request, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,115 @@
+package net.archiscape.app.security.jwt;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.management.SecurityMetersService;
+import net.archiscape.app.repository.AuthorityRepository;
+import net.archiscape.app.repository.TokenRevocationRepository;
+import net.archiscape.app.security.AuthorityRegistry;
+import net.archiscape.app.security.TokenRevocationList;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Benchmarks the creation and the verification of JWTs by the {@link TokenProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    @Param({ "1", "5", "20", "50" })
+    private int authorityCount;
+
+    @Param({ "true", "false" })
+    private boolean tokenCacheEnabled;
+
+    @Param({ "false", "true" })
+    private boolean compactAuthorities;
+
+    private TokenProvider tokenProvider;
+
+    private Authentication authentication;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = createTokenProvider(tokenCacheEnabled, compactAuthorities, authorityCount);
+        authentication = createAuthentication(authorityCount);
+        token = tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return tokenProvider.getAuthentication(token);
+    }
+
+    @Benchmark
+    public Authentication getVerifiedAuthentication() {
+        return tokenProvider.getVerifiedAuthentication(token).orElseThrow();
+    }
+
+    static TokenProvider createTokenProvider(boolean tokenCacheEnabled, boolean compactAuthorities, int authorityCount) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setTokenValidityInSeconds(3600);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getTokenCache().setEnabled(tokenCacheEnabled);
+        applicationProperties.getSecurity().getAuthorityClaim().setCompact(compactAuthorities);
+        return new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new SecurityMetersService(new SimpleMeterRegistry()),
+            createAuthorityRegistry(authorityCount),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
+    }
+
+    static AuthorityRegistry createAuthorityRegistry(int authorityCount) {
+        List<Authority> authorities = new ArrayList<>(authorityCount);
+        for (int i = 0; i < authorityCount; i++) {
+            Authority authority = new Authority();
+            authority.setName("ROLE_BENCHMARK_" + i);
+            authorities.add(authority);
+        }
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(authorities);
+        return new AuthorityRegistry(authorityRepository);
+    }
+
+    static Authentication createAuthentication(int authorityCount) {
+        List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+        for (int i = 0; i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_BENCHMARK_" + i));
+        }
+        return new UsernamePasswordAuthenticationToken("benchmark-user", "benchmark-password", authorities);
+    }
+}
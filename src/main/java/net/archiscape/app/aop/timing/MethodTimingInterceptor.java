@@ -0,0 +1,154 @@
+package net.archiscape.app.aop.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Times the methods of the services, repositories and REST controllers with a Micrometer timer per method and outcome.
+ * <p>
+ * A sample of the invocations is timed, so that the timers count the sampled invocations only, while their
+ * distribution stays representative. The timers of a method are registered on its first invocation on a class, then
+ * read from a cache: a timed invocation allocates nothing. Only the invocation itself is timed, not the asynchronous work
+ * or the stream it may return.
+ * <p>
+ * The timers are tagged with the class of the target, or with the interface of the target when it is a JDK proxy, such
+ * as a Spring Data repository: the methods inherited by several classes have timers per class.
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    public static final String METHOD_TIMER_METER_NAME = "application.method.duration";
+    public static final String METHOD_TIMER_METER_DESCRIPTION = "Indicates the duration of a sample of the invocations of the method.";
+    public static final String METHOD_TIMER_METER_LAYER_DIMENSION = "layer";
+    public static final String METHOD_TIMER_METER_CLASS_DIMENSION = "class";
+    public static final String METHOD_TIMER_METER_METHOD_DIMENSION = "method";
+    public static final String METHOD_TIMER_METER_OUTCOME_DIMENSION = "outcome";
+
+    private static final MethodTimers NOT_TIMED = new MethodTimers(null, null);
+
+    private final Map<Class<?>, Map<Method, MethodTimers>> methodTimers = new ConcurrentHashMap<>();
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final double samplingRate;
+
+    private final List<String> methods;
+
+    /**
+     * @param meterRegistry the registry of the timers, resolved on the first invocation, so that the interceptor can be
+     * created before the registry is configured.
+     * @param samplingRate the share of the invocations which are timed, from 0 to 1.
+     * @param methods the timed methods, as {@code UserService} or {@code UserService.getAllManagedUsers}, or all the
+     * methods if empty.
+     */
+    public MethodTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry, double samplingRate, List<String> methods) {
+        this.meterRegistry = meterRegistry;
+        this.samplingRate = Math.max(0, Math.min(1, samplingRate));
+        this.methods = List.copyOf(methods);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        Class<?> targetClass = target == null ? invocation.getMethod().getDeclaringClass() : target.getClass();
+        Map<Method, MethodTimers> classTimers = methodTimers.get(targetClass);
+        if (classTimers == null) {
+            classTimers = methodTimers.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        }
+        MethodTimers timers = classTimers.get(invocation.getMethod());
+        if (timers == null) {
+            timers = classTimers.computeIfAbsent(invocation.getMethod(), method -> register(method, target));
+        }
+        if (timers == NOT_TIMED || (samplingRate < 1 && ThreadLocalRandom.current().nextDouble() >= samplingRate)) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            timers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodTimers register(Method method, Object target) {
+        Class<?> targetClass = target == null ? method.getDeclaringClass() : userClassOf(target);
+        String className = targetClass.getSimpleName();
+        if (samplingRate == 0 || !isTimed(className, method.getName())) {
+            return NOT_TIMED;
+        }
+        String layer = layerOf(targetClass);
+        return new MethodTimers(
+            register(layer, className, method.getName(), "success"),
+            register(layer, className, method.getName(), "error")
+        );
+    }
+
+    private Timer register(String layer, String className, String methodName, String outcome) {
+        return Timer
+            .builder(METHOD_TIMER_METER_NAME)
+            .description(METHOD_TIMER_METER_DESCRIPTION)
+            .tag(METHOD_TIMER_METER_LAYER_DIMENSION, layer)
+            .tag(METHOD_TIMER_METER_CLASS_DIMENSION, className)
+            .tag(METHOD_TIMER_METER_METHOD_DIMENSION, methodName)
+            .tag(METHOD_TIMER_METER_OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry.getObject());
+    }
+
+    private boolean isTimed(String className, String methodName) {
+        return methods.isEmpty() || methods.contains(className) || methods.contains(className + "." + methodName);
+    }
+
+    private static Class<?> userClassOf(Object target) {
+        if (Proxy.isProxyClass(target.getClass())) {
+            // the repository interface of a Spring Data repository comes first
+            return AopProxyUtils.proxiedUserInterfaces(target)[0];
+        }
+        return ClassUtils.getUserClass(target);
+    }
+
+    private static String layerOf(Class<?> targetClass) {
+        if (AnnotatedElementUtils.hasAnnotation(targetClass, RestController.class)) {
+            return "rest";
+        }
+        if (AnnotatedElementUtils.hasAnnotation(targetClass, Service.class)) {
+            return "service";
+        }
+        if (
+            AnnotatedElementUtils.hasAnnotation(targetClass, Repository.class) ||
+            org.springframework.data.repository.Repository.class.isAssignableFrom(targetClass)
+        ) {
+            return "repository";
+        }
+        return "other";
+    }
+
+    private static class MethodTimers {
+
+        private final Timer success;
+
+        private final Timer error;
+
+        private MethodTimers(Timer success, Timer error) {
+            this.success = success;
+            this.error = error;
+        }
+    }
+}
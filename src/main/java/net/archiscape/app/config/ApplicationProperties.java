@@ -1,5 +1,7 @@
 package net.archiscape.app.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +11,884 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Security security = new Security();
+
+    private final Cache cache = new Cache();
+
+    private final UserImport userImport = new UserImport();
+
+    private final UserExport userExport = new UserExport();
+
+    private final UserCleanup userCleanup = new UserCleanup();
+
+    private final Datasource datasource = new Datasource();
+
+    private final PersistenceMetrics persistenceMetrics = new PersistenceMetrics();
+
+    private final AuditEvents auditEvents = new AuditEvents();
+
+    private final UserActivity userActivity = new UserActivity();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    private final Logging logging = new Logging();
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public UserImport getUserImport() {
+        return userImport;
+    }
+
+    public UserExport getUserExport() {
+        return userExport;
+    }
+
+    public UserCleanup getUserCleanup() {
+        return userCleanup;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public PersistenceMetrics getPersistenceMetrics() {
+        return persistenceMetrics;
+    }
+
+    public AuditEvents getAuditEvents() {
+        return auditEvents;
+    }
+
+    public UserActivity getUserActivity() {
+        return userActivity;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
+    /**
+     * Bulk import of users: each batch of rows is validated and inserted in its own transaction.
+     */
+    public static class UserImport {
+
+        private int batchSize = 1000;
+
+        private int maxReportedErrors = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    /**
+     * Export of all the users, streamed in a single request.
+     */
+    public static class UserExport {
+
+        private long timeoutInSeconds = 600;
+
+        public long getTimeoutInSeconds() {
+            return timeoutInSeconds;
+        }
+
+        public void setTimeoutInSeconds(long timeoutInSeconds) {
+            this.timeoutInSeconds = timeoutInSeconds;
+        }
+    }
+
+    /**
+     * Removal of the users which were never activated: a single node at a time deletes them, one chunk per transaction.
+     */
+    public static class UserCleanup {
+
+        private int chunkSize = 500;
+
+        private long lockAtMostForInSeconds = 1800;
+
+        private long lockAtLeastForInSeconds = 60;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getLockAtMostForInSeconds() {
+            return lockAtMostForInSeconds;
+        }
+
+        public void setLockAtMostForInSeconds(long lockAtMostForInSeconds) {
+            this.lockAtMostForInSeconds = lockAtMostForInSeconds;
+        }
+
+        public long getLockAtLeastForInSeconds() {
+            return lockAtLeastForInSeconds;
+        }
+
+        public void setLockAtLeastForInSeconds(long lockAtLeastForInSeconds) {
+            this.lockAtLeastForInSeconds = lockAtLeastForInSeconds;
+        }
+    }
+
+    public static class Datasource {
+
+        private final Replica replica = new Replica();
+
+        public Replica getReplica() {
+            return replica;
+        }
+
+        /**
+         * Replica receiving the read-only transactions, while its replication lag is below the maximum. The replica pool
+         * has the settings of {@code spring.datasource.hikari}, except for the ones below.
+         */
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private Integer maximumPoolSize;
+
+            private long maxLagInMillis = 5000;
+
+            private long heartbeatIntervalInMillis = 1000;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public Integer getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            public void setMaximumPoolSize(Integer maximumPoolSize) {
+                this.maximumPoolSize = maximumPoolSize;
+            }
+
+            public long getMaxLagInMillis() {
+                return maxLagInMillis;
+            }
+
+            public void setMaxLagInMillis(long maxLagInMillis) {
+                this.maxLagInMillis = maxLagInMillis;
+            }
+
+            public long getHeartbeatIntervalInMillis() {
+                return heartbeatIntervalInMillis;
+            }
+
+            public void setHeartbeatIntervalInMillis(long heartbeatIntervalInMillis) {
+                this.heartbeatIntervalInMillis = heartbeatIntervalInMillis;
+            }
+        }
+    }
+
+    /**
+     * Opt-in instrumentation of the persistence layer: the Hibernate statistics, and the duration of each SQL statement
+     * with the repository method it comes from.
+     */
+    public static class PersistenceMetrics {
+
+        private boolean enabled = false;
+
+        private long slowStatementThresholdInMillis = 100;
+
+        private int maxStatements = 1000;
+
+        private int topStatements = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSlowStatementThresholdInMillis() {
+            return slowStatementThresholdInMillis;
+        }
+
+        public void setSlowStatementThresholdInMillis(long slowStatementThresholdInMillis) {
+            this.slowStatementThresholdInMillis = slowStatementThresholdInMillis;
+        }
+
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(int maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        public int getTopStatements() {
+            return topStatements;
+        }
+
+        public void setTopStatements(int topStatements) {
+            this.topStatements = topStatements;
+        }
+    }
+
+    /**
+     * Audit events, buffered in memory and written by batches in the background.
+     */
+    public static class AuditEvents {
+
+        private int bufferCapacity = 8192;
+
+        private int batchSize = 500;
+
+        private long flushIntervalInMillis = 1000;
+
+        public int getBufferCapacity() {
+            return bufferCapacity;
+        }
+
+        public void setBufferCapacity(int bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalInMillis() {
+            return flushIntervalInMillis;
+        }
+
+        public void setFlushIntervalInMillis(long flushIntervalInMillis) {
+            this.flushIntervalInMillis = flushIntervalInMillis;
+        }
+    }
+
+    /**
+     * Last login and last seen dates of the users, coalesced in memory and written by batches in the background.
+     */
+    public static class UserActivity {
+
+        private int batchSize = 500;
+
+        private long flushIntervalInMillis = 10000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalInMillis() {
+            return flushIntervalInMillis;
+        }
+
+        public void setFlushIntervalInMillis(long flushIntervalInMillis) {
+            this.flushIntervalInMillis = flushIntervalInMillis;
+        }
+    }
+
+    /**
+     * Timers of the service, repository and REST controller methods, over a sample of their invocations.
+     */
+    public static class MethodTiming {
+
+        private boolean enabled = false;
+
+        private double samplingRate = 0.1;
+
+        private List<String> methods = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSamplingRate() {
+            return samplingRate;
+        }
+
+        public void setSamplingRate(double samplingRate) {
+            this.samplingRate = samplingRate;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * Logging, in addition to the {@code jhipster.logging} properties.
+     */
+    public static class Logging {
+
+        private final Async async = new Async();
+
+        public Async getAsync() {
+            return async;
+        }
+
+        /**
+         * Appending the events from a background thread, through a bounded buffer.
+         */
+        public static class Async {
+
+            private boolean enabled = false;
+
+            private int bufferCapacity = 8192;
+
+            private double discardingThreshold = 0.8;
+
+            private String discardingLevel = "INFO";
+
+            private long maxFlushTimeInMillis = 1000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBufferCapacity() {
+                return bufferCapacity;
+            }
+
+            public void setBufferCapacity(int bufferCapacity) {
+                this.bufferCapacity = bufferCapacity;
+            }
+
+            public double getDiscardingThreshold() {
+                return discardingThreshold;
+            }
+
+            public void setDiscardingThreshold(double discardingThreshold) {
+                this.discardingThreshold = discardingThreshold;
+            }
+
+            public String getDiscardingLevel() {
+                return discardingLevel;
+            }
+
+            public void setDiscardingLevel(String discardingLevel) {
+                this.discardingLevel = discardingLevel;
+            }
+
+            public long getMaxFlushTimeInMillis() {
+                return maxFlushTimeInMillis;
+            }
+
+            public void setMaxFlushTimeInMillis(long maxFlushTimeInMillis) {
+                this.maxFlushTimeInMillis = maxFlushTimeInMillis;
+            }
+        }
+    }
+
+    /**
+     * Regions of the Hibernate second-level cache.
+     */
+    public static class Cache {
+
+        private final Region user = new Region(5000, 3600);
+
+        private final Region authority = new Region(100, 86400);
+
+        private final Region userAuthorities = new Region(5000, 3600);
+
+        public Region getUser() {
+            return user;
+        }
+
+        public Region getAuthority() {
+            return authority;
+        }
+
+        public Region getUserAuthorities() {
+            return userAuthorities;
+        }
+
+        public static class Region {
+
+            private long maxEntries;
+
+            private long timeToLiveSeconds;
+
+            public Region(long maxEntries, long timeToLiveSeconds) {
+                this.maxEntries = maxEntries;
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class Security {
+
+        private final TokenCache tokenCache = new TokenCache();
+
+        private final UserDetailsCache userDetailsCache = new UserDetailsCache();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final RateLimit rateLimit = new RateLimit();
+
+        private final AuthorityClaim authorityClaim = new AuthorityClaim();
+
+        private final Authorities authorities = new Authorities();
+
+        private final TokenRevocation tokenRevocation = new TokenRevocation();
+
+        private final RefreshToken refreshToken = new RefreshToken();
+
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+
+        public UserDetailsCache getUserDetailsCache() {
+            return userDetailsCache;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public AuthorityClaim getAuthorityClaim() {
+            return authorityClaim;
+        }
+
+        public Authorities getAuthorities() {
+            return authorities;
+        }
+
+        public TokenRevocation getTokenRevocation() {
+            return tokenRevocation;
+        }
+
+        public RefreshToken getRefreshToken() {
+            return refreshToken;
+        }
+
+        /**
+         * Cache of already verified JWTs, so that a bearer token sent many times is only parsed once.
+         */
+        public static class TokenCache {
+
+            private boolean enabled = true;
+
+            private int maxSize = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+        }
+
+        /**
+         * Cache of the security details of the users, so that authenticating does not always query the database.
+         */
+        public static class UserDetailsCache {
+
+            private boolean enabled = true;
+
+            private int maxSize = 10000;
+
+            private long timeToLiveInSeconds = 600;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public long getTimeToLiveInSeconds() {
+                return timeToLiveInSeconds;
+            }
+
+            public void setTimeToLiveInSeconds(long timeToLiveInSeconds) {
+                this.timeToLiveInSeconds = timeToLiveInSeconds;
+            }
+        }
+
+        /**
+         * BCrypt hashing, run on its own bounded pool so that logins can't starve the other requests.
+         */
+        public static class PasswordHashing {
+
+            private int strength = 10;
+
+            private int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+            private int queueCapacity = 200;
+
+            private long retryAfterSeconds = 1;
+
+            private final Calibration calibration = new Calibration();
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public long getRetryAfterSeconds() {
+                return retryAfterSeconds;
+            }
+
+            public void setRetryAfterSeconds(long retryAfterSeconds) {
+                this.retryAfterSeconds = retryAfterSeconds;
+            }
+
+            public Calibration getCalibration() {
+                return calibration;
+            }
+
+            /**
+             * Picks the BCrypt cost at startup instead of using the configured strength.
+             */
+            public static class Calibration {
+
+                private boolean enabled = false;
+
+                private long targetLatencyInMillis = 250;
+
+                private int minStrength = 10;
+
+                private int maxStrength = 14;
+
+                public boolean isEnabled() {
+                    return enabled;
+                }
+
+                public void setEnabled(boolean enabled) {
+                    this.enabled = enabled;
+                }
+
+                public long getTargetLatencyInMillis() {
+                    return targetLatencyInMillis;
+                }
+
+                public void setTargetLatencyInMillis(long targetLatencyInMillis) {
+                    this.targetLatencyInMillis = targetLatencyInMillis;
+                }
+
+                public int getMinStrength() {
+                    return minStrength;
+                }
+
+                public void setMinStrength(int minStrength) {
+                    this.minStrength = minStrength;
+                }
+
+                public int getMaxStrength() {
+                    return maxStrength;
+                }
+
+                public void setMaxStrength(int maxStrength) {
+                    this.maxStrength = maxStrength;
+                }
+            }
+        }
+
+        /**
+         * Rate limits of the authentication and password reset endpoints, by login and by client IP.
+         */
+        public static class RateLimit {
+
+            private boolean enabled = true;
+
+            private int maxKeys = 100000;
+
+            private final Endpoint authentication = new Endpoint(new Policy(10, 60), new Policy(100, 60));
+
+            private final Endpoint passwordReset = new Endpoint(new Policy(3, 3600), new Policy(20, 3600));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxKeys() {
+                return maxKeys;
+            }
+
+            public void setMaxKeys(int maxKeys) {
+                this.maxKeys = maxKeys;
+            }
+
+            public Endpoint getAuthentication() {
+                return authentication;
+            }
+
+            public Endpoint getPasswordReset() {
+                return passwordReset;
+            }
+
+            public static class Endpoint {
+
+                private final Policy perLogin;
+
+                private final Policy perIp;
+
+                public Endpoint(Policy perLogin, Policy perIp) {
+                    this.perLogin = perLogin;
+                    this.perIp = perIp;
+                }
+
+                public Policy getPerLogin() {
+                    return perLogin;
+                }
+
+                public Policy getPerIp() {
+                    return perIp;
+                }
+            }
+
+            /**
+             * Allows {@code capacity} requests per {@code periodInSeconds}, all of them at once at most.
+             */
+            public static class Policy {
+
+                private int capacity;
+
+                private long periodInSeconds;
+
+                public Policy(int capacity, long periodInSeconds) {
+                    this.capacity = capacity;
+                    this.periodInSeconds = periodInSeconds;
+                }
+
+                public int getCapacity() {
+                    return capacity;
+                }
+
+                public void setCapacity(int capacity) {
+                    this.capacity = capacity;
+                }
+
+                public long getPeriodInSeconds() {
+                    return periodInSeconds;
+                }
+
+                public void setPeriodInSeconds(long periodInSeconds) {
+                    this.periodInSeconds = periodInSeconds;
+                }
+            }
+        }
+
+        /**
+         * Encoding of the authorities in the JWTs: compact tokens can only be read by nodes which know this encoding.
+         */
+        public static class AuthorityClaim {
+
+            private boolean compact = false;
+
+            public boolean isCompact() {
+                return compact;
+            }
+
+            public void setCompact(boolean compact) {
+                this.compact = compact;
+            }
+        }
+
+        /**
+         * In-memory registry of the authorities, reloaded periodically in case the table was changed.
+         */
+        public static class Authorities {
+
+            private long refreshIntervalInMillis = 300000;
+
+            public long getRefreshIntervalInMillis() {
+                return refreshIntervalInMillis;
+            }
+
+            public void setRefreshIntervalInMillis(long refreshIntervalInMillis) {
+                this.refreshIntervalInMillis = refreshIntervalInMillis;
+            }
+        }
+
+        /**
+         * In-memory mirror of the revoked JWTs, refreshed from the database by each node.
+         */
+        public static class TokenRevocation {
+
+            private int expectedRevocations = 10000;
+
+            private long refreshIntervalInMillis = 10000;
+
+            public int getExpectedRevocations() {
+                return expectedRevocations;
+            }
+
+            public void setExpectedRevocations(int expectedRevocations) {
+                this.expectedRevocations = expectedRevocations;
+            }
+
+            public long getRefreshIntervalInMillis() {
+                return refreshIntervalInMillis;
+            }
+
+            public void setRefreshIntervalInMillis(long refreshIntervalInMillis) {
+                this.refreshIntervalInMillis = refreshIntervalInMillis;
+            }
+        }
+
+        /**
+         * Short-lived access JWTs, renewed with rotated refresh tokens instead of authenticating again.
+         */
+        public static class RefreshToken {
+
+            private long accessTokenValidityInSeconds = 300;
+
+            private long tokenValidityInSeconds = 86400;
+
+            private long tokenValidityInSecondsForRememberMe = 2592000;
+
+            public long getAccessTokenValidityInSeconds() {
+                return accessTokenValidityInSeconds;
+            }
+
+            public void setAccessTokenValidityInSeconds(long accessTokenValidityInSeconds) {
+                this.accessTokenValidityInSeconds = accessTokenValidityInSeconds;
+            }
+
+            public long getTokenValidityInSeconds() {
+                return tokenValidityInSeconds;
+            }
+
+            public void setTokenValidityInSeconds(long tokenValidityInSeconds) {
+                this.tokenValidityInSeconds = tokenValidityInSeconds;
+            }
+
+            public long getTokenValidityInSecondsForRememberMe() {
+                return tokenValidityInSecondsForRememberMe;
+            }
+
+            public void setTokenValidityInSecondsForRememberMe(long tokenValidityInSecondsForRememberMe) {
+                this.tokenValidityInSecondsForRememberMe = tokenValidityInSecondsForRememberMe;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.archiscape.app.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.domain.User;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the in-process JCache (Caffeine) regions of the Hibernate second-level cache.
+ * <p>
+ * Each region has its own size and time to live, and its hit, miss, put and eviction counts are exported to Micrometer
+ * as the {@code cache.*} meters, tagged with the region name.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    public static final String USER_REGION = User.class.getName();
+
+    public static final String AUTHORITY_REGION = Authority.class.getName();
+
+    public static final String USER_AUTHORITIES_REGION = User.class.getName() + ".authorities";
+
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.cacheProperties = applicationProperties.getCache();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates a cache manager of its own for each application context, as tests run several contexts in the same JVM.
+     *
+     * @return the JCache cache manager holding the second-level cache regions.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager jCacheManager() {
+        CacheManager cacheManager = Caching
+            .getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("archiscape-" + UUID.randomUUID()), getClass().getClassLoader());
+        createCache(cacheManager, USER_REGION, cacheProperties.getUser());
+        createCache(cacheManager, AUTHORITY_REGION, cacheProperties.getAuthority());
+        createCache(cacheManager, USER_AUTHORITIES_REGION, cacheProperties.getUserAuthorities());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager jCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, jCacheManager);
+    }
+
+    private void createCache(CacheManager cacheManager, String name, ApplicationProperties.Cache.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.getMaxEntries()));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(region.getTimeToLiveSeconds())));
+        configuration.setStatisticsEnabled(true);
+        Cache<Object, Object> cache = cacheManager.createCache(name, configuration);
+        JCacheMetrics.monitor(meterRegistry, cache, Tags.empty());
+        log.debug("Created second-level cache region {} ({} entries, {}s)", name, region.getMaxEntries(), region.getTimeToLiveSeconds());
+    }
+}
@@ -1,14 +1,24 @@
 package net.archiscape.app.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.sql.SQLException;
+import java.util.Objects;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
@@ -54,4 +64,74 @@ public class DatabaseConfiguration {
         }
         return String.valueOf(port);
     }
+
+    /**
+     * Read/write routing, when a replica is configured with {@code application.datasource.replica.url}: the read-only
+     * transactions go to the replica pool, unless its replication lag is too high, and the others to the primary pool.
+     * <p>
+     * Both pools are Hikari pools, whose metrics are published per pool name.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "application.datasource.replica", name = "url")
+    public static class ReplicaRoutingConfiguration {
+
+        private final Logger log = LoggerFactory.getLogger(ReplicaRoutingConfiguration.class);
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public HikariDataSource replicaDataSource(HikariDataSource primaryDataSource, ApplicationProperties applicationProperties) {
+            ApplicationProperties.Datasource.Replica replica = applicationProperties.getDatasource().getReplica();
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                config.setUsername(replica.getUsername());
+                config.setPassword(replica.getPassword());
+            }
+            if (replica.getMaximumPoolSize() != null) {
+                config.setMaximumPoolSize(replica.getMaximumPoolSize());
+            }
+            config.setPoolName(Objects.requireNonNullElse(primaryDataSource.getPoolName(), "Hikari") + "-replica");
+            config.setReadOnly(true);
+            log.debug("Sending the read-only transactions to the replica {}", replica.getUrl());
+            return new HikariDataSource(config);
+        }
+
+        @Bean
+        public ReplicaLagGuard replicaLagGuard(
+            HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry
+        ) {
+            long maxLagInMillis = applicationProperties.getDatasource().getReplica().getMaxLagInMillis();
+            return new ReplicaLagGuard(primaryDataSource, replicaDataSource, maxLagInMillis, meterRegistry);
+        }
+
+        /**
+         * The data source of JPA, JDBC and Liquibase, which fetches its connections once the transaction has begun.
+         *
+         * @return the routing data source.
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(
+            HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource,
+            ReplicaLagGuard replicaLagGuard
+        ) {
+            ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource,
+                replicaDataSource,
+                replicaLagGuard
+            );
+            routingDataSource.afterPropertiesSet();
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+    }
 }
@@ -2,26 +2,43 @@ package net.archiscape.app.config;
 
 import static tech.jhipster.config.logging.LoggingUtils.*;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
+import ch.qos.logback.core.CoreConstants;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import net.logstash.logback.appender.AsyncDisruptorAppender;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import tech.jhipster.config.JHipsterProperties;
 
 /*
- * Configures the console and Logstash log appenders from the app properties
+ * Configures the console and Logstash log appenders from the app properties, and puts the synchronous appenders behind
+ * a ring buffer in async mode
  */
 @Configuration
 public class LoggingConfiguration {
 
+    private static final String ASYNC_APPENDER_NAME = "ASYNC";
+
+    private final RingBufferAppender asyncAppender;
+
     public LoggingConfiguration(
         @Value("${spring.application.name}") String appName,
         @Value("${server.port}") String serverPort,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         ObjectMapper mapper
     ) throws JsonProcessingException {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -43,5 +60,64 @@ public class LoggingConfiguration {
         if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
             addContextListener(context, customFields, loggingProperties);
         }
+        ApplicationProperties.Logging.Async asyncProperties = applicationProperties.getLogging().getAsync();
+        asyncAppender = asyncProperties.isEnabled() ? addRingBufferAppender(context, asyncProperties) : null;
+    }
+
+    /**
+     * Exports the depth of the buffer and the count of the dropped events, in async mode.
+     *
+     * @return the binder of the logging meters.
+     */
+    @Bean
+    public MeterBinder asyncLoggingMeterBinder() {
+        return registry -> {
+            if (asyncAppender != null) {
+                asyncAppender.bindTo(registry);
+            }
+        };
+    }
+
+    /**
+     * Moves the synchronous appenders of the root logger, such as the console in plain text or JSON, behind a ring
+     * buffer appender. The appenders already asynchronous, such as the Logstash one, are left as they are.
+     * <p>
+     * A reconfiguration of Logback would restore the synchronous appenders: the scan of its configuration file is
+     * stopped.
+     */
+    private static RingBufferAppender addRingBufferAppender(LoggerContext context, ApplicationProperties.Logging.Async asyncProperties) {
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        rootLogger
+            .iteratorForAppenders()
+            .forEachRemaining(appender -> {
+                if (!(appender instanceof AsyncAppenderBase) && !(appender instanceof AsyncDisruptorAppender)) {
+                    appenders.add(appender);
+                }
+            });
+
+        RingBufferAppender ringBufferAppender = new RingBufferAppender();
+        ringBufferAppender.setContext(context);
+        ringBufferAppender.setName(ASYNC_APPENDER_NAME);
+        ringBufferAppender.setBufferCapacity(asyncProperties.getBufferCapacity());
+        ringBufferAppender.setDiscardingThreshold(asyncProperties.getDiscardingThreshold());
+        ringBufferAppender.setDiscardingLevel(Level.toLevel(asyncProperties.getDiscardingLevel(), Level.INFO));
+        ringBufferAppender.setMaxFlushTimeInMillis(asyncProperties.getMaxFlushTimeInMillis());
+        appenders.forEach(ringBufferAppender::addAppender);
+        ringBufferAppender.start();
+        if (!ringBufferAppender.isStarted()) {
+            return null;
+        }
+        // the events are appended to the moved appenders once only, through the ring buffer
+        rootLogger.addAppender(ringBufferAppender);
+        appenders.forEach(rootLogger::detachAppender);
+        stopConfigurationScan(context);
+        return ringBufferAppender;
+    }
+
+    private static void stopConfigurationScan(LoggerContext context) {
+        // the scan of the configuration file is the only task scheduled by Logback
+        context.getScheduledFutures().forEach(future -> future.cancel(false));
+        context.removeObject(CoreConstants.RECONFIGURE_ON_CHANGE_TASK);
     }
 }
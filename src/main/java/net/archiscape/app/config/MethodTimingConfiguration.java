@@ -0,0 +1,48 @@
+package net.archiscape.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.archiscape.app.aop.timing.MethodTimingInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Role;
+
+/**
+ * Times the methods matched by the pointcuts of the {@link net.archiscape.app.aop.logging.LoggingAspect}, enabled with
+ * {@code application.method-timing.enabled}.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.method-timing", name = "enabled", havingValue = "true")
+public class MethodTimingConfiguration {
+
+    private static final String LOGGING_ASPECT = "net.archiscape.app.aop.logging.LoggingAspect";
+
+    private static final String POINTCUT = LOGGING_ASPECT + ".applicationPackagePointcut() && " + LOGGING_ASPECT + ".springBeanPointcut()";
+
+    /**
+     * The advisor is created with the auto proxy creator, before most beans: the meter registry is only resolved on the
+     * first timed invocation.
+     *
+     * @param meterRegistry the registry of the timers.
+     * @param applicationProperties the properties of the application.
+     * @return the advisor timing the methods.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor methodTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.MethodTiming methodTiming = applicationProperties.getMethodTiming();
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(POINTCUT);
+        return new DefaultPointcutAdvisor(
+            pointcut,
+            new MethodTimingInterceptor(meterRegistry, methodTiming.getSamplingRate(), methodTiming.getMethods())
+        );
+    }
+}
@@ -0,0 +1,120 @@
+package net.archiscape.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import net.archiscape.app.management.HibernateEntityMetrics;
+import net.archiscape.app.management.RepositoryMethodContext;
+import net.archiscape.app.management.StatementStatistics;
+import net.archiscape.app.management.StatementsEndpoint;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Opt-in instrumentation of the persistence layer, enabled with {@code application.persistence-metrics.enabled}.
+ * <ul>
+ * <li>The Hibernate statistics are generated: Spring Boot exports the aggregate ones, this configuration adds the ones
+ * of each entity and of each query.</li>
+ * <li>The data source is wrapped by a proxy timing each SQL statement, and the Spring Data repositories record the
+ * method running on the current thread, so that the slow statements are traced back to it.</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.persistence-metrics", name = "enabled", havingValue = "true")
+public class PersistenceMetricsConfiguration {
+
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    private static final String ENTITY_MANAGER_FACTORY_NAME = "entityManagerFactory";
+
+    @Bean
+    public HibernatePropertiesCustomizer statisticsHibernatePropertiesCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    }
+
+    /**
+     * Binds the statistics of the entities and of the queries once the entity manager factory is fully built.
+     *
+     * @return the binder of the Hibernate meters.
+     */
+    @Bean
+    public SmartInitializingSingleton hibernateStatisticsMetersBinder(
+        ObjectProvider<EntityManagerFactory> entityManagerFactory,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return () -> {
+            SessionFactory sessionFactory = entityManagerFactory.getObject().unwrap(SessionFactory.class);
+            MeterRegistry registry = meterRegistry.getObject();
+            new HibernateEntityMetrics(sessionFactory.getStatistics()).bindTo(registry);
+            new HibernateQueryMetrics(sessionFactory, ENTITY_MANAGER_FACTORY_NAME, Tags.empty()).bindTo(registry);
+        };
+    }
+
+    @Bean
+    public StatementStatistics statementStatistics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new StatementStatistics(meterRegistry, applicationProperties);
+    }
+
+    @Bean
+    public StatementsEndpoint statementsEndpoint(StatementStatistics statementStatistics, ApplicationProperties applicationProperties) {
+        return new StatementsEndpoint(statementStatistics, applicationProperties.getPersistenceMetrics().getTopStatements());
+    }
+
+    /**
+     * Wraps the data source of JPA and JDBC, keeping the pools themselves unwrapped for their own metrics.
+     *
+     * @param statementStatistics the listener of the statements.
+     * @return the post processor of the data source.
+     */
+    @Bean
+    public static BeanPostProcessor statementStatisticsDataSourcePostProcessor(ObjectProvider<StatementStatistics> statementStatistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN_NAME.equals(beanName) || !(bean instanceof DataSource)) {
+                    return bean;
+                }
+                if (bean instanceof ProxyDataSource) {
+                    // already wrapped by another post processor
+                    ((ProxyDataSource) bean).getProxyConfig().getQueryListener().addListener(statementStatistics.getObject());
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean).name(beanName).listener(statementStatistics.getObject()).build();
+            }
+        };
+    }
+
+    /**
+     * Adds the interceptor recording the current method to each Spring Data repository.
+     *
+     * @return the post processor of the repository factories.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMethodContextPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                proxyFactory.addAdvice(RepositoryMethodContext.interceptor(repositoryInformation.getRepositoryInterface()))
+                            )
+                        );
+                }
+                return bean;
+            }
+        };
+    }
+}
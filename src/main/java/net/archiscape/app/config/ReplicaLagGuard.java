@@ -0,0 +1,157 @@
+package net.archiscape.app.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures the replication lag of the replica, with a heartbeat written to the primary and read back from the replica.
+ * <p>
+ * The replica is only used while its last check succeeded with a lag below the maximum, and is not older than the
+ * maximum lag: the read-only transactions fall back to the primary when the replica is late, or unreachable, and when
+ * the lag is no longer measured.
+ */
+public class ReplicaLagGuard {
+
+    public static final String LAG_METER_NAME = "datasource.replica.lag";
+    public static final String LAG_METER_DESCRIPTION = "Indicates the replication lag of the replica, negative when it is unknown.";
+    public static final String LAG_METER_BASE_UNIT = "milliseconds";
+
+    public static final String USABLE_METER_NAME = "datasource.replica.usable";
+    public static final String USABLE_METER_DESCRIPTION = "Indicates whether the read-only transactions are sent to the replica.";
+
+    private static final String WRITE_HEARTBEAT = "update replica_heartbeat set beat = ? where id = 1";
+
+    private static final String READ_HEARTBEAT = "select beat from replica_heartbeat where id = 1";
+
+    /**
+     * Timestamps are stored in UTC, as with {@code hibernate.jdbc.time_zone}.
+     */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaLagGuard.class);
+
+    private final JdbcTemplate primaryJdbcTemplate;
+
+    private final TransactionTemplate primaryTransactionTemplate;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    private final TransactionTemplate replicaTransactionTemplate;
+
+    private final long maxLagInMillis;
+
+    private final LongSupplier nanoClock;
+
+    private volatile long lagInMillis = -1;
+
+    private volatile boolean replicaUsable;
+
+    private volatile long lastUsableCheckNanos;
+
+    public ReplicaLagGuard(
+        DataSource primaryDataSource,
+        DataSource replicaDataSource,
+        long maxLagInMillis,
+        MeterRegistry meterRegistry
+    ) {
+        this(primaryDataSource, replicaDataSource, maxLagInMillis, meterRegistry, System::nanoTime);
+    }
+
+    ReplicaLagGuard(
+        DataSource primaryDataSource,
+        DataSource replicaDataSource,
+        long maxLagInMillis,
+        MeterRegistry meterRegistry,
+        LongSupplier nanoClock
+    ) {
+        // a stuck check must not delay the other scheduled tasks for long
+        int queryTimeoutInSeconds = (int) Math.max(1, Duration.ofMillis(maxLagInMillis).toSeconds());
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.primaryJdbcTemplate.setQueryTimeout(queryTimeoutInSeconds);
+        this.primaryTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(queryTimeoutInSeconds);
+        this.replicaTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(replicaDataSource));
+        this.replicaTransactionTemplate.setReadOnly(true);
+        this.maxLagInMillis = maxLagInMillis;
+        this.nanoClock = nanoClock;
+        Gauge
+            .builder(LAG_METER_NAME, this, guard -> guard.lagInMillis)
+            .description(LAG_METER_DESCRIPTION)
+            .baseUnit(LAG_METER_BASE_UNIT)
+            .register(meterRegistry);
+        Gauge
+            .builder(USABLE_METER_NAME, this, guard -> guard.isReplicaUsable() ? 1 : 0)
+            .description(USABLE_METER_DESCRIPTION)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return {@code true} if the read-only transactions can be sent to the replica.
+     */
+    public boolean isReplicaUsable() {
+        // the checks may have stopped, with the scheduler or the database stuck
+        return replicaUsable && nanoClock.getAsLong() - lastUsableCheckNanos <= TimeUnit.MILLISECONDS.toNanos(maxLagInMillis);
+    }
+
+    /**
+     * Writes a heartbeat to the primary, and measures the lag of the replica from the last heartbeat it received.
+     */
+    @Scheduled(
+        initialDelayString = "${application.datasource.replica.heartbeat-interval-in-millis:1000}",
+        fixedDelayString = "${application.datasource.replica.heartbeat-interval-in-millis:1000}"
+    )
+    public void check() {
+        Instant now = Instant.now();
+        try {
+            primaryTransactionTemplate.executeWithoutResult(status ->
+                primaryJdbcTemplate.update(WRITE_HEARTBEAT, ps -> ps.setTimestamp(1, Timestamp.from(now), Calendar.getInstance(UTC)))
+            );
+        } catch (DataAccessException e) {
+            log.debug("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+        long lag;
+        try {
+            Timestamp beat = replicaTransactionTemplate.execute(status ->
+                replicaJdbcTemplate.query(READ_HEARTBEAT, rs -> rs.next() ? rs.getTimestamp(1, Calendar.getInstance(UTC)) : null)
+            );
+            // the heartbeat just written is seen at once by a replica without lag
+            lag = beat == null ? -1 : Math.max(0, Duration.between(beat.toInstant(), now).toMillis());
+        } catch (DataAccessException e) {
+            log.debug("Could not read the replica heartbeat: {}", e.getMessage());
+            lag = -1;
+        }
+        update(lag);
+    }
+
+    private void update(long lag) {
+        boolean usable = lag >= 0 && lag <= maxLagInMillis;
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Sending the read-only transactions to the replica, with a lag of {} ms", lag);
+            } else {
+                log.warn("Sending the read-only transactions to the primary, as the replica lag is {} ms", lag);
+            }
+        }
+        if (usable) {
+            lastUsableCheckNanos = nanoClock.getAsLong();
+        }
+        lagInMillis = lag;
+        replicaUsable = usable;
+    }
+}
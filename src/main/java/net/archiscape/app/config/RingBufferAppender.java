@@ -0,0 +1,233 @@
+package net.archiscape.app.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import net.archiscape.app.util.RingBuffer;
+
+/**
+ * Appends the logging events to its attached appenders from a worker thread, through a bounded lock-free buffer, so
+ * that the threads logging never wait for the I/O of the appenders.
+ * <p>
+ * Once the buffer is fuller than the discarding threshold, the events at or below the discarding level are dropped, so
+ * that the remaining room is kept for the warnings and errors. When the buffer is full, any event is dropped rather than
+ * blocking. The dropped events are counted.
+ */
+public class RingBufferAppender
+    extends UnsynchronizedAppenderBase<ILoggingEvent>
+    implements AppenderAttachable<ILoggingEvent>, MeterBinder {
+
+    public static final String EVENTS_METER_APPENDER_DIMENSION = "appender";
+
+    public static final String PENDING_EVENTS_METER_NAME = "logging.events.pending";
+    public static final String PENDING_EVENTS_METER_DESCRIPTION = "Indicates the number of the logging events waiting to be appended.";
+    public static final String PENDING_EVENTS_METER_BASE_UNIT = "events";
+
+    public static final String DROPPED_EVENTS_METER_NAME = "logging.events.dropped";
+    public static final String DROPPED_EVENTS_METER_DESCRIPTION = "Indicates the count of the logging events dropped under pressure.";
+    public static final String DROPPED_EVENTS_METER_BASE_UNIT = "events";
+
+    private static final int BATCH_SIZE = 256;
+
+    private static final long IDLE_PARK_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private int bufferCapacity = 8192;
+
+    private double discardingThreshold = 0.8;
+
+    private Level discardingLevel = Level.INFO;
+
+    private long maxFlushTimeInMillis = 1000;
+
+    private RingBuffer<ILoggingEvent> buffer;
+
+    private int discardingSize;
+
+    private Thread worker;
+
+    private volatile boolean workerParked;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender is attached to the appender named [" + name + "]");
+            return;
+        }
+        buffer = new RingBuffer<>(bufferCapacity);
+        discardingSize = (int) (buffer.capacity() * Math.max(0, Math.min(1, discardingThreshold)));
+        worker = new Thread(this::work, "logback-" + name);
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTimeInMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Dropped " + buffer.size() + " events not appended within " + maxFlushTimeInMillis + " ms on stop");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (buffer.size() >= discardingSize && event.getLevel().toInt() <= discardingLevel.toInt()) {
+            droppedEvents.increment();
+            return;
+        }
+        // the message, the MDC and the thread name are captured on the logging thread
+        event.prepareForDeferredProcessing();
+        if (!buffer.offer(event)) {
+            droppedEvents.increment();
+            return;
+        }
+        if (workerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void work() {
+        List<ILoggingEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (isStarted()) {
+            if (buffer.drainTo(batch, BATCH_SIZE) == 0) {
+                workerParked = true;
+                // an event offered before the flag was set is found by the next drain
+                if (buffer.size() == 0 && isStarted()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_IN_NANOS);
+                }
+                workerParked = false;
+                continue;
+            }
+            appendAll(batch);
+        }
+        // appends the events left on stop
+        while (buffer.drainTo(batch, BATCH_SIZE) > 0) {
+            appendAll(batch);
+        }
+    }
+
+    private void appendAll(List<ILoggingEvent> batch) {
+        for (ILoggingEvent event : batch) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        batch.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge
+            .builder(PENDING_EVENTS_METER_NAME, this, RingBufferAppender::getPendingCount)
+            .baseUnit(PENDING_EVENTS_METER_BASE_UNIT)
+            .description(PENDING_EVENTS_METER_DESCRIPTION)
+            .tag(EVENTS_METER_APPENDER_DIMENSION, name)
+            .register(registry);
+        FunctionCounter
+            .builder(DROPPED_EVENTS_METER_NAME, droppedEvents, LongAdder::sum)
+            .baseUnit(DROPPED_EVENTS_METER_BASE_UNIT)
+            .description(DROPPED_EVENTS_METER_DESCRIPTION)
+            .tag(EVENTS_METER_APPENDER_DIMENSION, name)
+            .register(registry);
+    }
+
+    /**
+     * @return the number of events waiting to be appended.
+     */
+    public int getPendingCount() {
+        RingBuffer<ILoggingEvent> current = buffer;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * @return the number of events dropped since the start.
+     */
+    public long getDroppedCount() {
+        return droppedEvents.sum();
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * @param discardingThreshold the share of the buffer, from 0 to 1, from which the low level events are dropped.
+     */
+    public void setDiscardingThreshold(double discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    /**
+     * @param discardingLevel the highest level of the events dropped beyond the threshold.
+     */
+    public void setDiscardingLevel(Level discardingLevel) {
+        this.discardingLevel = discardingLevel;
+    }
+
+    public void setMaxFlushTimeInMillis(long maxFlushTimeInMillis) {
+        this.maxFlushTimeInMillis = maxFlushTimeInMillis;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
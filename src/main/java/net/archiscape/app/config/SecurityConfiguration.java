@@ -2,6 +2,7 @@ package net.archiscape.app.config;
 
 import net.archiscape.app.security.*;
 import net.archiscape.app.security.jwt.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -11,7 +12,6 @@ import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -27,26 +27,49 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
+    private final ApplicationProperties applicationProperties;
+
     private final TokenProvider tokenProvider;
 
+    private final UserActivityTracker userActivityTracker;
+
     private final CorsFilter corsFilter;
     private final SecurityProblemSupport problemSupport;
 
     public SecurityConfiguration(
         TokenProvider tokenProvider,
+        UserActivityTracker userActivityTracker,
         CorsFilter corsFilter,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         SecurityProblemSupport problemSupport
     ) {
         this.tokenProvider = tokenProvider;
+        this.userActivityTracker = userActivityTracker;
         this.corsFilter = corsFilter;
         this.problemSupport = problemSupport;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        ApplicationProperties.Security.PasswordHashing passwordHashing = applicationProperties.getSecurity().getPasswordHashing();
+        ApplicationProperties.Security.PasswordHashing.Calibration calibration = passwordHashing.getCalibration();
+        int strength = calibration.isEnabled()
+            ? BCryptStrengthCalibrator.calibrate(
+                calibration.getTargetLatencyInMillis(),
+                calibration.getMinStrength(),
+                calibration.getMaxStrength()
+            )
+            : passwordHashing.getStrength();
+        return new BoundedBCryptPasswordEncoder(strength, passwordHashing);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(UserCacheEvictionChannel.class)
+    public UserCacheEvictionChannel userCacheEvictionChannel() {
+        return new InProcessUserCacheEvictionChannel();
     }
 
     @Bean
@@ -89,6 +112,9 @@ public class SecurityConfiguration {
         .and()
             .authorizeRequests()
             .antMatchers("/api/authenticate").permitAll()
+            .antMatchers("/api/token").permitAll()
+            .antMatchers("/api/token/refresh").permitAll()
+            .antMatchers("/api/token/revoke").permitAll()
             .antMatchers("/api/register").permitAll()
             .antMatchers("/api/activate").permitAll()
             .antMatchers("/api/account/reset-password/init").permitAll()
@@ -109,6 +135,6 @@ public class SecurityConfiguration {
     }
 
     private JWTConfigurer securityConfigurerAdapter() {
-        return new JWTConfigurer(tokenProvider);
+        return new JWTConfigurer(tokenProvider, userActivityTracker);
     }
 }
@@ -14,12 +14,15 @@ import javax.validation.constraints.Size;
 import net.archiscape.app.config.Constants;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A user.
  */
 @Entity
 @Table(name = "jhi_user")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User extends AbstractAuditingEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -28,6 +31,14 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Incremented by each modification, so that concurrent modifications fail instead of overwriting each other.
+     */
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @NotNull
     @Pattern(regexp = Constants.LOGIN_REGEX)
     @Size(min = 1, max = 50)
@@ -53,6 +64,13 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Column(length = 254, unique = true)
     private String email;
 
+    /**
+     * The lowercase email, so that the case-insensitive lookups use an index instead of comparing {@code lower(email)}.
+     */
+    @JsonIgnore
+    @Column(name = "normalized_email", length = 191)
+    private String normalizedEmail;
+
     @NotNull
     @Column(nullable = false)
     private boolean activated = false;
@@ -78,6 +96,19 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Column(name = "reset_date")
     private Instant resetDate = null;
 
+    /**
+     * Written in the background by the {@code UserActivityTracker}, and never by Hibernate, so that an update of the
+     * user doesn't overwrite it with the value it was read with.
+     */
+    @Column(name = "last_login_date", insertable = false, updatable = false)
+    private Instant lastLoginDate;
+
+    /**
+     * Written in the background, as the last login date.
+     */
+    @Column(name = "last_seen_date", insertable = false, updatable = false)
+    private Instant lastSeenDate;
+
     @JsonIgnore
     @ManyToMany
     @JoinTable(
@@ -85,6 +116,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
         joinColumns = { @JoinColumn(name = "user_id", referencedColumnName = "id") },
         inverseJoinColumns = { @JoinColumn(name = "authority_name", referencedColumnName = "name") }
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @BatchSize(size = 20)
     private Set<Authority> authorities = new HashSet<>();
 
@@ -96,6 +128,14 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getLogin() {
         return login;
     }
@@ -135,6 +175,21 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    /**
+     * Normalizes an email for the case-insensitive lookups.
+     *
+     * @param email the email.
+     * @return the normalized email.
+     */
+    public static String normalizeEmail(String email) {
+        return StringUtils.lowerCase(email, Locale.ENGLISH);
     }
 
     public String getImageUrl() {
@@ -177,6 +232,22 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.resetDate = resetDate;
     }
 
+    public Instant getLastLoginDate() {
+        return lastLoginDate;
+    }
+
+    public void setLastLoginDate(Instant lastLoginDate) {
+        this.lastLoginDate = lastLoginDate;
+    }
+
+    public Instant getLastSeenDate() {
+        return lastSeenDate;
+    }
+
+    public void setLastSeenDate(Instant lastSeenDate) {
+        this.lastSeenDate = lastSeenDate;
+    }
+
     public String getLangKey() {
         return langKey;
     }
@@ -0,0 +1,59 @@
+package net.archiscape.app.management;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Exports the Hibernate statistics of each entity, which the aggregate {@code hibernate.*} meters don't break down.
+ */
+public class HibernateEntityMetrics implements MeterBinder {
+
+    public static final String ENTITY_OPERATIONS_METER_NAME = "hibernate.entity.operations";
+    public static final String ENTITY_OPERATIONS_METER_DESCRIPTION = "Indicates the count of the operations of Hibernate on an entity.";
+    public static final String ENTITY_OPERATIONS_METER_BASE_UNIT = "operations";
+    public static final String ENTITY_OPERATIONS_METER_ENTITY_DIMENSION = "entity";
+    public static final String ENTITY_OPERATIONS_METER_OPERATION_DIMENSION = "operation";
+
+    private final Statistics statistics;
+
+    public HibernateEntityMetrics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String entityName : statistics.getEntityNames()) {
+            EntityStatistics entityStatistics = statistics.getEntityStatistics(entityName);
+            String entity = entityName.substring(entityName.lastIndexOf('.') + 1);
+            register(registry, entityStatistics, entity, "load", EntityStatistics::getLoadCount);
+            register(registry, entityStatistics, entity, "fetch", EntityStatistics::getFetchCount);
+            register(registry, entityStatistics, entity, "insert", EntityStatistics::getInsertCount);
+            register(registry, entityStatistics, entity, "update", EntityStatistics::getUpdateCount);
+            register(registry, entityStatistics, entity, "delete", EntityStatistics::getDeleteCount);
+            register(registry, entityStatistics, entity, "optimistic-failure", EntityStatistics::getOptimisticFailureCount);
+        }
+    }
+
+    private void register(
+        MeterRegistry registry,
+        EntityStatistics entityStatistics,
+        String entity,
+        String operation,
+        ToDoubleFunction<EntityStatistics> count
+    ) {
+        FunctionCounter
+            .builder(ENTITY_OPERATIONS_METER_NAME, entityStatistics, count)
+            .baseUnit(ENTITY_OPERATIONS_METER_BASE_UNIT)
+            .description(ENTITY_OPERATIONS_METER_DESCRIPTION)
+            .tag(ENTITY_OPERATIONS_METER_ENTITY_DIMENSION, entity)
+            .tag(ENTITY_OPERATIONS_METER_OPERATION_DIMENSION, operation)
+            .register(registry);
+    }
+}
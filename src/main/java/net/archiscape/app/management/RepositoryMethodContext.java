@@ -0,0 +1,44 @@
+package net.archiscape.app.management;
+
+import org.aopalliance.intercept.MethodInterceptor;
+
+/**
+ * Holds the repository method running on the current thread, so that the SQL statements can be traced back to it.
+ * <p>
+ * Only the outermost method is kept, when a repository method calls another one.
+ */
+public final class RepositoryMethodContext {
+
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {}
+
+    /**
+     * @return the repository method running on the current thread, such as {@code UserRepository.findOneByLogin}, or
+     * {@code null}.
+     */
+    public static String getCurrentMethod() {
+        return CURRENT_METHOD.get();
+    }
+
+    /**
+     * Creates the interceptor of the repository methods.
+     *
+     * @param repositoryInterface the repository interface.
+     * @return the interceptor setting the current method.
+     */
+    public static MethodInterceptor interceptor(Class<?> repositoryInterface) {
+        String prefix = repositoryInterface.getSimpleName() + ".";
+        return invocation -> {
+            if (CURRENT_METHOD.get() != null) {
+                return invocation.proceed();
+            }
+            CURRENT_METHOD.set(prefix + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                CURRENT_METHOD.remove();
+            }
+        };
+    }
+}
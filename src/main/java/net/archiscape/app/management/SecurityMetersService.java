@@ -13,16 +13,34 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String RATE_LIMITED_METER_NAME = "security.authentication.rate-limited";
+    public static final String RATE_LIMITED_METER_DESCRIPTION = "Indicates the count of the requests rejected by the rate limits.";
+    public static final String RATE_LIMITED_METER_BASE_UNIT = "rejections";
+    public static final String RATE_LIMITED_METER_ENDPOINT_DIMENSION = "endpoint";
+    public static final String RATE_LIMITED_METER_KEY_DIMENSION = "key";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter tokenRevokedCounter;
+
+    private final Counter authenticationRateLimitedByLoginCounter;
+    private final Counter authenticationRateLimitedByIpCounter;
+    private final Counter passwordResetRateLimitedByLoginCounter;
+    private final Counter passwordResetRateLimitedByIpCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenRevokedCounter = invalidTokensCounterForCauseBuilder("revoked").register(registry);
+
+        this.authenticationRateLimitedByLoginCounter = rateLimitedCounterBuilder("authenticate", "login").register(registry);
+        this.authenticationRateLimitedByIpCounter = rateLimitedCounterBuilder("authenticate", "ip").register(registry);
+        this.passwordResetRateLimitedByLoginCounter = rateLimitedCounterBuilder("password-reset", "login").register(registry);
+        this.passwordResetRateLimitedByIpCounter = rateLimitedCounterBuilder("password-reset", "ip").register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +51,15 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder rateLimitedCounterBuilder(String endpoint, String key) {
+        return Counter
+            .builder(RATE_LIMITED_METER_NAME)
+            .baseUnit(RATE_LIMITED_METER_BASE_UNIT)
+            .description(RATE_LIMITED_METER_DESCRIPTION)
+            .tag(RATE_LIMITED_METER_ENDPOINT_DIMENSION, endpoint)
+            .tag(RATE_LIMITED_METER_KEY_DIMENSION, key);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +75,24 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenRevoked() {
+        this.tokenRevokedCounter.increment();
+    }
+
+    public void trackAuthenticationRateLimitedByLogin() {
+        this.authenticationRateLimitedByLoginCounter.increment();
+    }
+
+    public void trackAuthenticationRateLimitedByIp() {
+        this.authenticationRateLimitedByIpCounter.increment();
+    }
+
+    public void trackPasswordResetRateLimitedByLogin() {
+        this.passwordResetRateLimitedByLoginCounter.increment();
+    }
+
+    public void trackPasswordResetRateLimitedByIp() {
+        this.passwordResetRateLimitedByIpCounter.increment();
+    }
 }
@@ -0,0 +1,240 @@
+package net.archiscape.app.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import net.archiscape.app.config.ApplicationProperties;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates the durations of the SQL statements by shape, that is their SQL with the literals and the padded
+ * {@code in} lists reduced to a single parameter.
+ * <p>
+ * A statement at least as long as the threshold is logged with the repository method it comes from, and counted per
+ * repository method. The number of tracked shapes is bounded, so that statements built from literals don't grow the
+ * statistics without end.
+ */
+public class StatementStatistics implements QueryExecutionListener {
+
+    public static final String SLOW_STATEMENTS_METER_NAME = "persistence.statements.slow";
+    public static final String SLOW_STATEMENTS_METER_DESCRIPTION = "Indicates the count of the statements longer than the threshold.";
+    public static final String SLOW_STATEMENTS_METER_BASE_UNIT = "statements";
+    public static final String SLOW_STATEMENTS_METER_REPOSITORY_METHOD_DIMENSION = "repository-method";
+
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private static final int MAX_REPOSITORY_METHODS = 5;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Logger log = LoggerFactory.getLogger(StatementStatistics.class);
+
+    private final Map<String, Statement> statements = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowStatementThresholdInMillis;
+
+    private final int maxStatements;
+
+    public StatementStatistics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementThresholdInMillis = applicationProperties.getPersistenceMetrics().getSlowStatementThresholdInMillis();
+        this.maxStatements = applicationProperties.getPersistenceMetrics().getMaxStatements();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // the duration is only known afterwards
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        // the statements of a batch share their SQL
+        record(queryInfoList.get(0).getQuery(), execInfo.getElapsedTime(), RepositoryMethodContext.getCurrentMethod());
+    }
+
+    /**
+     * Records an execution of a statement.
+     *
+     * @param sql the SQL of the statement.
+     * @param elapsedTimeInMillis the duration of the execution.
+     * @param repositoryMethod the repository method the statement comes from, or {@code null}.
+     */
+    public void record(String sql, long elapsedTimeInMillis, String repositoryMethod) {
+        String shape = shapeOf(sql);
+        Statement statement = statements.get(shape);
+        if (statement == null && statements.size() < maxStatements) {
+            statement = statements.computeIfAbsent(shape, Statement::new);
+        }
+        boolean slow = elapsedTimeInMillis >= slowStatementThresholdInMillis;
+        if (statement != null) {
+            statement.record(elapsedTimeInMillis, repositoryMethod, slow);
+        }
+        if (slow) {
+            String origin = repositoryMethod == null ? "none" : repositoryMethod;
+            log.warn("Slow statement of {} ms from {}: {}", elapsedTimeInMillis, origin, shape);
+            Counter
+                .builder(SLOW_STATEMENTS_METER_NAME)
+                .baseUnit(SLOW_STATEMENTS_METER_BASE_UNIT)
+                .description(SLOW_STATEMENTS_METER_DESCRIPTION)
+                .tag(SLOW_STATEMENTS_METER_REPOSITORY_METHOD_DIMENSION, origin)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    /**
+     * @param limit the maximum number of statements.
+     * @return the statements with the longest total duration, longest first.
+     */
+    public List<StatementSummary> getTopStatements(int limit) {
+        return statements
+            .values()
+            .stream()
+            .map(Statement::summarize)
+            .sorted(Comparator.comparingLong(StatementSummary::getTotalTimeInMillis).reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Forgets the recorded statements.
+     */
+    public void reset() {
+        statements.clear();
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return shape.length() > MAX_SQL_LENGTH ? shape.substring(0, MAX_SQL_LENGTH) : shape;
+    }
+
+    private static class Statement {
+
+        private final String sql;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalTimeInMillis = new LongAdder();
+
+        private final LongAccumulator maxTimeInMillis = new LongAccumulator(Math::max, 0);
+
+        private final LongAdder slowCount = new LongAdder();
+
+        private final Set<String> repositoryMethods = ConcurrentHashMap.newKeySet();
+
+        private Statement(String sql) {
+            this.sql = sql;
+        }
+
+        private void record(long elapsedTimeInMillis, String repositoryMethod, boolean slow) {
+            count.increment();
+            totalTimeInMillis.add(elapsedTimeInMillis);
+            maxTimeInMillis.accumulate(elapsedTimeInMillis);
+            if (slow) {
+                slowCount.increment();
+            }
+            if (repositoryMethod != null && repositoryMethods.size() < MAX_REPOSITORY_METHODS) {
+                repositoryMethods.add(repositoryMethod);
+            }
+        }
+
+        private StatementSummary summarize() {
+            return new StatementSummary(
+                sql,
+                Set.copyOf(repositoryMethods),
+                count.sum(),
+                totalTimeInMillis.sum(),
+                maxTimeInMillis.get(),
+                slowCount.sum()
+            );
+        }
+    }
+
+    /**
+     * Statistics of a statement shape.
+     */
+    public static class StatementSummary {
+
+        private final String sql;
+
+        private final Set<String> repositoryMethods;
+
+        private final long count;
+
+        private final long totalTimeInMillis;
+
+        private final long maxTimeInMillis;
+
+        private final long slowCount;
+
+        StatementSummary(
+            String sql,
+            Set<String> repositoryMethods,
+            long count,
+            long totalTimeInMillis,
+            long maxTimeInMillis,
+            long slowCount
+        ) {
+            this.sql = sql;
+            this.repositoryMethods = repositoryMethods;
+            this.count = count;
+            this.totalTimeInMillis = totalTimeInMillis;
+            this.maxTimeInMillis = maxTimeInMillis;
+            this.slowCount = slowCount;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Set<String> getRepositoryMethods() {
+            return repositoryMethods;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalTimeInMillis() {
+            return totalTimeInMillis;
+        }
+
+        public long getMaxTimeInMillis() {
+            return maxTimeInMillis;
+        }
+
+        public double getMeanTimeInMillis() {
+            return count == 0 ? 0 : (double) totalTimeInMillis / count;
+        }
+
+        public long getSlowCount() {
+            return slowCount;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.archiscape.app.management;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint listing the SQL statements with the longest total duration, with the repository methods they come
+ * from.
+ */
+@Endpoint(id = "statements")
+public class StatementsEndpoint {
+
+    private final StatementStatistics statementStatistics;
+
+    private final int defaultLimit;
+
+    public StatementsEndpoint(StatementStatistics statementStatistics, int defaultLimit) {
+        this.statementStatistics = statementStatistics;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * {@code GET /management/statements} : the statements with the longest total duration.
+     *
+     * @param limit the maximum number of statements, the configured number by default.
+     * @return the statements, longest first.
+     */
+    @ReadOperation
+    public List<StatementStatistics.StatementSummary> statements(@Nullable Integer limit) {
+        return statementStatistics.getTopStatements(limit == null ? defaultLimit : limit);
+    }
+
+    /**
+     * {@code DELETE /management/statements} : forgets the recorded statements, to measure from now on.
+     */
+    @DeleteOperation
+    public void reset() {
+        statementStatistics.reset();
+    }
+}
@@ -0,0 +1,86 @@
+package net.archiscape.app.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Converts the audit events of Spring Boot Actuator from and to {@link PersistentAuditEvent} entities.
+ */
+public final class AuditEventConverter {
+
+    /**
+     * Should be the same as in the Liquibase changelog.
+     */
+    static final int PRINCIPAL_MAX_LENGTH = 50;
+
+    /**
+     * The values are truncated, so that an event fits in its row whatever the data of the security events.
+     */
+    static final int DATA_VALUE_MAX_LENGTH = 255;
+
+    private AuditEventConverter() {}
+
+    /**
+     * @param persistentAuditEvent the persisted event.
+     * @return the event of Spring Boot Actuator.
+     */
+    public static AuditEvent convertToAuditEvent(PersistentAuditEvent persistentAuditEvent) {
+        return new AuditEvent(
+            persistentAuditEvent.getAuditEventDate(),
+            persistentAuditEvent.getPrincipal(),
+            persistentAuditEvent.getAuditEventType(),
+            new HashMap<>(persistentAuditEvent.getData())
+        );
+    }
+
+    /**
+     * @param persistentAuditEvents the persisted events.
+     * @return the events of Spring Boot Actuator.
+     */
+    public static List<AuditEvent> convertToAuditEvent(List<PersistentAuditEvent> persistentAuditEvents) {
+        return persistentAuditEvents.stream().map(AuditEventConverter::convertToAuditEvent).collect(Collectors.toList());
+    }
+
+    /**
+     * @param auditEvent the event of Spring Boot Actuator.
+     * @return the event to persist, with the principal and the values of the data truncated.
+     */
+    static PersistentAuditEvent convertToPersistentAuditEvent(AuditEvent auditEvent) {
+        PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
+        persistentAuditEvent.setPrincipal(truncate(auditEvent.getPrincipal(), PRINCIPAL_MAX_LENGTH));
+        persistentAuditEvent.setAuditEventType(auditEvent.getType());
+        persistentAuditEvent.setAuditEventDate(auditEvent.getTimestamp());
+        persistentAuditEvent.setData(convertDataToStrings(auditEvent.getData()));
+        return persistentAuditEvent;
+    }
+
+    /**
+     * Flattens the details of the authentications into their remote address and session id.
+     */
+    private static Map<String, String> convertDataToStrings(Map<String, Object> data) {
+        Map<String, String> results = new HashMap<>();
+        if (data != null) {
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                if (entry.getValue() instanceof WebAuthenticationDetails) {
+                    WebAuthenticationDetails details = (WebAuthenticationDetails) entry.getValue();
+                    results.put("remoteAddress", truncate(details.getRemoteAddress(), DATA_VALUE_MAX_LENGTH));
+                    if (details.getSessionId() != null) {
+                        results.put("sessionId", truncate(details.getSessionId(), DATA_VALUE_MAX_LENGTH));
+                    }
+                } else if (entry.getValue() != null) {
+                    results.put(entry.getKey(), truncate(entry.getValue().toString(), DATA_VALUE_MAX_LENGTH));
+                }
+            }
+        }
+        return results;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
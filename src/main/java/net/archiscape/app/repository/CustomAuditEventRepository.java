@@ -0,0 +1,101 @@
+package net.archiscape.app.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import net.archiscape.app.util.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.boot.actuate.security.AuthorizationAuditListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * An implementation of Spring Boot's {@link AuditEventRepository}, fed by the security events of Spring Boot Actuator
+ * and by the audit events published by the application.
+ * <p>
+ * The events are not written in the transaction of the request raising them: they are queued in a bounded lock-free
+ * ring buffer, which the {@code AuditEventService} drains into JDBC batches. When the buffer is full, as during a flood
+ * of failed authentications, the new events are dropped and counted rather than slowing the requests down.
+ */
+@Repository
+public class CustomAuditEventRepository implements AuditEventRepository {
+
+    public static final String DROPPED_EVENTS_METER_NAME = "audit.events.dropped";
+    public static final String DROPPED_EVENTS_METER_DESCRIPTION = "Indicates the count of the audit events dropped as the buffer was full.";
+    public static final String DROPPED_EVENTS_METER_BASE_UNIT = "events";
+
+    public static final String PENDING_EVENTS_METER_NAME = "audit.events.pending";
+    public static final String PENDING_EVENTS_METER_DESCRIPTION = "Indicates the number of the audit events waiting to be written.";
+    public static final String PENDING_EVENTS_METER_BASE_UNIT = "events";
+
+    private static final String ANONYMOUS_USER = "anonymousUser";
+
+    private final Logger log = LoggerFactory.getLogger(CustomAuditEventRepository.class);
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final RingBuffer<PersistentAuditEvent> buffer;
+
+    private final Counter droppedEventsCounter;
+
+    public CustomAuditEventRepository(
+        PersistenceAuditEventRepository persistenceAuditEventRepository,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.buffer = new RingBuffer<>(applicationProperties.getAuditEvents().getBufferCapacity());
+        this.droppedEventsCounter = Counter
+            .builder(DROPPED_EVENTS_METER_NAME)
+            .baseUnit(DROPPED_EVENTS_METER_BASE_UNIT)
+            .description(DROPPED_EVENTS_METER_DESCRIPTION)
+            .register(meterRegistry);
+        Gauge
+            .builder(PENDING_EVENTS_METER_NAME, buffer, RingBuffer::size)
+            .baseUnit(PENDING_EVENTS_METER_BASE_UNIT)
+            .description(PENDING_EVENTS_METER_DESCRIPTION)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void add(AuditEvent event) {
+        // anonymous requests to protected resources are answered with a 401, and would only be noise
+        if (AuthorizationAuditListener.AUTHORIZATION_FAILURE.equals(event.getType()) && ANONYMOUS_USER.equals(event.getPrincipal())) {
+            return;
+        }
+        if (!buffer.offer(AuditEventConverter.convertToPersistentAuditEvent(event))) {
+            droppedEventsCounter.increment();
+            log.debug("Dropped audit event {} of {}, as the buffer is full", event.getType(), event.getPrincipal());
+        }
+    }
+
+    /**
+     * Finds the written events, the ones still in the buffer being left out.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuditEvent> find(String principal, Instant after, String type) {
+        return AuditEventConverter.convertToAuditEvent(
+            persistenceAuditEventRepository.findAllByPrincipalAndAuditEventDateAfterAndAuditEventType(principal, after, type)
+        );
+    }
+
+    /**
+     * Moves the oldest buffered events to a collection, to be written.
+     *
+     * @param target the collection receiving the events.
+     * @param maxEvents the maximum number of events to move.
+     * @return the number of events moved.
+     */
+    public int drainTo(Collection<PersistentAuditEvent> target, int maxEvents) {
+        return buffer.drainTo(target, maxEvents);
+    }
+}
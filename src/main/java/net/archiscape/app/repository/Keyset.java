@@ -0,0 +1,223 @@
+package net.archiscape.app.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a list of entities sorted by one property, then by id: the next or previous page is read with a seek
+ * predicate on the sort key and the id of the last row read, so its cost does not grow with the position.
+ * <p>
+ * A keyset is sent to the clients as an opaque cursor, see {@link #encode()} and {@link #decode(String)}.
+ */
+public final class Keyset {
+
+    private static final String SEPARATOR = "|";
+
+    private static final int FIELD_COUNT = 5;
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final boolean backward;
+
+    private final Object lastKey;
+
+    private final Long lastId;
+
+    private Keyset(String property, Sort.Direction direction, boolean backward, Object lastKey, Long lastId) {
+        this.property = Objects.requireNonNull(property);
+        this.direction = Objects.requireNonNull(direction);
+        this.backward = backward;
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Returns the position before the first row.
+     *
+     * @param property the sort property.
+     * @param direction the sort direction.
+     * @return the keyset of the first page.
+     */
+    public static Keyset first(String property, Sort.Direction direction) {
+        return new Keyset(property, direction, false, null, null);
+    }
+
+    /**
+     * Returns the position following a row, with the same sort.
+     *
+     * @param key the sort key of the row.
+     * @param id the id of the row.
+     * @return the keyset of the page after the row.
+     */
+    public Keyset after(Object key, Long id) {
+        return new Keyset(property, direction, false, key, Objects.requireNonNull(id));
+    }
+
+    /**
+     * Returns the position preceding a row, with the same sort.
+     *
+     * @param key the sort key of the row.
+     * @param id the id of the row.
+     * @return the keyset of the page before the row.
+     */
+    public Keyset before(Object key, Long id) {
+        return new Keyset(property, direction, true, key, Objects.requireNonNull(id));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return {@code true} if the page is read towards the first row.
+     */
+    public boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * @return the sort key of the last row read, possibly {@code null}.
+     */
+    public Object getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * @return the id of the last row read, or {@code null} for the first page.
+     */
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    /**
+     * Encodes this keyset as an opaque, URL safe cursor.
+     *
+     * @return the cursor.
+     * @throws IllegalStateException if the type of the sort key is not supported.
+     */
+    public String encode() {
+        String value = String.join(
+            SEPARATOR,
+            property,
+            direction.name(),
+            backward ? "b" : "f",
+            lastId == null ? "" : lastId.toString(),
+            encodeKey(lastKey)
+        );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode()}.
+     *
+     * @param cursor the cursor.
+     * @return the keyset.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static Keyset decode(String cursor) {
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        // the key is last, as it may contain the separator
+        String[] fields = value.split("\\" + SEPARATOR, FIELD_COUNT);
+        if (fields.length != FIELD_COUNT || fields[0].isEmpty() || fields[3].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        boolean backward;
+        if ("b".equals(fields[2])) {
+            backward = true;
+        } else if ("f".equals(fields[2])) {
+            backward = false;
+        } else {
+            throw new IllegalArgumentException("Malformed cursor direction");
+        }
+        try {
+            return new Keyset(fields[0], Sort.Direction.valueOf(fields[1]), backward, decodeKey(fields[4]), Long.valueOf(fields[3]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor key", e);
+        }
+    }
+
+    private static String encodeKey(Object key) {
+        if (key == null) {
+            return "n";
+        } else if (key instanceof String) {
+            return "s" + key;
+        } else if (key instanceof Boolean) {
+            return "b" + key;
+        } else if (key instanceof Long || key instanceof Integer) {
+            return "l" + key;
+        } else if (key instanceof Instant) {
+            return "i" + key;
+        }
+        throw new IllegalStateException("Unsupported sort key type: " + key.getClass().getName());
+    }
+
+    private static Object decodeKey(String key) {
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor key");
+        }
+        String value = key.substring(1);
+        switch (key.charAt(0)) {
+            case 'n':
+                return null;
+            case 's':
+                return value;
+            case 'b':
+                return Boolean.valueOf(value);
+            case 'l':
+                return Long.valueOf(value);
+            case 'i':
+                return Instant.parse(value);
+            default:
+                throw new IllegalArgumentException("Malformed cursor key");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Keyset)) {
+            return false;
+        }
+        Keyset keyset = (Keyset) o;
+        return (
+            backward == keyset.backward &&
+            property.equals(keyset.property) &&
+            direction == keyset.direction &&
+            Objects.equals(lastKey, keyset.lastKey) &&
+            Objects.equals(lastId, keyset.lastId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, backward, lastKey, lastId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Keyset{" +
+            "property='" + property + '\'' +
+            ", direction=" + direction +
+            ", backward=" + backward +
+            ", lastKey='" + lastKey + '\'' +
+            ", lastId=" + lastId +
+            "}";
+    }
+}
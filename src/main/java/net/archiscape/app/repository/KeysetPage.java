@@ -0,0 +1,60 @@
+package net.archiscape.app.repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A page read from a {@link Keyset}, with the keysets of the pages around it.
+ *
+ * @param <T> the type of the content.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> content;
+
+    private final Keyset next;
+
+    private final Keyset previous;
+
+    public KeysetPage(List<T> content, Keyset next, Keyset previous) {
+        this.content = Collections.unmodifiableList(content);
+        this.next = next;
+        this.previous = previous;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the keyset of the next page, if there are more rows after this page.
+     */
+    public Optional<Keyset> getNext() {
+        return Optional.ofNullable(next);
+    }
+
+    /**
+     * @return the keyset of the previous page, if there are more rows before this page.
+     */
+    public Optional<Keyset> getPrevious() {
+        return Optional.ofNullable(previous);
+    }
+
+    /**
+     * Returns a page at the same position with another content, such as the rows of the ids of this page.
+     *
+     * @param content the content of the new page.
+     * @param <U> the type of the new content.
+     * @return the new page.
+     */
+    public <U> KeysetPage<U> withContent(List<U> content) {
+        return new KeysetPage<>(content, next, previous);
+    }
+
+    public <U> KeysetPage<U> map(Function<? super T, ? extends U> converter) {
+        return new KeysetPage<>(content.stream().map(converter).collect(Collectors.toList()), next, previous);
+    }
+}
@@ -0,0 +1,33 @@
+package net.archiscape.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link PersistentAuditEvent} entity.
+ */
+@Repository
+public interface PersistenceAuditEventRepository
+    extends JpaRepository<PersistentAuditEvent, Long>, PersistentAuditEventBatchRepository {
+    Page<PersistentAuditEvent> findAllByAuditEventDateBetween(Instant fromDate, Instant toDate, Pageable pageable);
+
+    @Query(
+        "select event from PersistentAuditEvent event where " +
+        "(:principal is null or event.principal = :principal) and " +
+        "(:after is null or event.auditEventDate > :after) and " +
+        "(:type is null or event.auditEventType = :type) " +
+        "order by event.auditEventDate"
+    )
+    List<PersistentAuditEvent> findAllByPrincipalAndAuditEventDateAfterAndAuditEventType(
+        @Param("principal") String principal,
+        @Param("after") Instant after,
+        @Param("type") String type
+    );
+}
@@ -0,0 +1,16 @@
+package net.archiscape.app.repository;
+
+import java.util.Collection;
+import net.archiscape.app.domain.PersistentAuditEvent;
+
+/**
+ * Batched inserts of {@link PersistentAuditEvent} entities.
+ */
+public interface PersistentAuditEventBatchRepository {
+    /**
+     * Inserts new audit events with a JDBC batch, bypassing the persistence context.
+     *
+     * @param events the events to insert, without id.
+     */
+    void insertAll(Collection<PersistentAuditEvent> events);
+}
@@ -0,0 +1,50 @@
+package net.archiscape.app.repository;
+
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.TimeZone;
+import net.archiscape.app.domain.AuditEventDataConverter;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts the audit events through the JDBC connection of the current transaction, in a batch of the size of the
+ * collection.
+ */
+class PersistentAuditEventBatchRepositoryImpl implements PersistentAuditEventBatchRepository {
+
+    private static final String INSERT_EVENT =
+        "insert into jhi_persistent_audit_event (principal, event_date, event_type, event_data) values (?, ?, ?, ?)";
+
+    /**
+     * Timestamps are stored in UTC, as with {@code hibernate.jdbc.time_zone}.
+     */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final AuditEventDataConverter dataConverter = new AuditEventDataConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PersistentAuditEventBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(Collection<PersistentAuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            INSERT_EVENT,
+            events,
+            events.size(),
+            (ps, event) -> {
+                ps.setString(1, event.getPrincipal());
+                ps.setTimestamp(2, Timestamp.from(event.getAuditEventDate()), Calendar.getInstance(UTC));
+                ps.setString(3, event.getAuditEventType());
+                ps.setString(4, dataConverter.convertToDatabaseColumn(event.getData()));
+            }
+        );
+    }
+}
@@ -0,0 +1,36 @@
+package net.archiscape.app.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import net.archiscape.app.domain.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    /**
+     * Finds a token and locks it, so that two concurrent refreshes with the same token can't both rotate it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RefreshToken> findOneByTokenHash(String tokenHash);
+
+    /**
+     * Revokes all the tokens of a family, then clears the persistence context, so that the tokens already loaded are read
+     * again as revoked, and a later flush can't write them back as not revoked.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RefreshToken refreshToken set refreshToken.revoked = true where refreshToken.family = :family")
+    int revokeFamily(@Param("family") String family);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.expiresAt < :expiresAt")
+    int deleteAllByExpiresAtBefore(@Param("expiresAt") Instant expiresAt);
+}
@@ -0,0 +1,95 @@
+package net.archiscape.app.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository for the {@code scheduler_lock} table, which lets a single node at a time run a scheduled job.
+ * <p>
+ * A lock is held until its {@code lock_until} date, so that it is released even if its node dies. The statements must
+ * run in a transaction, which is committed before the job starts.
+ */
+@Repository
+public class SchedulerLockRepository {
+
+    private static final String UPDATE_EXPIRED_LOCK =
+        "update scheduler_lock set lock_until = ?, locked_at = ?, locked_by = ? where name = ? and lock_until <= ?";
+
+    private static final String INSERT_LOCK = "insert into scheduler_lock (name, lock_until, locked_at, locked_by) values (?, ?, ?, ?)";
+
+    private static final String RELEASE_LOCK = "update scheduler_lock set lock_until = ? where name = ? and locked_by = ?";
+
+    /**
+     * Timestamps are stored in UTC, as with {@code hibernate.jdbc.time_zone}.
+     */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Acquires a lock, unless another node holds it.
+     *
+     * @param name the name of the lock.
+     * @param now the current date.
+     * @param lockUntil the date until which the lock is held, unless it is released before.
+     * @param lockedBy the node acquiring the lock.
+     * @return {@code true} if the lock was acquired.
+     */
+    public boolean tryLock(String name, Instant now, Instant lockUntil, String lockedBy) {
+        int updated = jdbcTemplate.update(
+            UPDATE_EXPIRED_LOCK,
+            ps -> {
+                ps.setTimestamp(1, Timestamp.from(lockUntil), Calendar.getInstance(UTC));
+                ps.setTimestamp(2, Timestamp.from(now), Calendar.getInstance(UTC));
+                ps.setString(3, lockedBy);
+                ps.setString(4, name);
+                ps.setTimestamp(5, Timestamp.from(now), Calendar.getInstance(UTC));
+            }
+        );
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            // either the lock is held, or it was never acquired yet
+            jdbcTemplate.update(
+                INSERT_LOCK,
+                ps -> {
+                    ps.setString(1, name);
+                    ps.setTimestamp(2, Timestamp.from(lockUntil), Calendar.getInstance(UTC));
+                    ps.setTimestamp(3, Timestamp.from(now), Calendar.getInstance(UTC));
+                    ps.setString(4, lockedBy);
+                }
+            );
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Releases a lock acquired by a node.
+     *
+     * @param name the name of the lock.
+     * @param lockUntil the date from which the lock can be acquired again.
+     * @param lockedBy the node holding the lock.
+     */
+    public void unlock(String name, Instant lockUntil, String lockedBy) {
+        jdbcTemplate.update(
+            RELEASE_LOCK,
+            ps -> {
+                ps.setTimestamp(1, Timestamp.from(lockUntil), Calendar.getInstance(UTC));
+                ps.setString(2, name);
+                ps.setString(3, lockedBy);
+            }
+        );
+    }
+}
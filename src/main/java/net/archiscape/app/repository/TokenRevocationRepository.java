@@ -0,0 +1,22 @@
+package net.archiscape.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+import net.archiscape.app.domain.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link TokenRevocation} entity.
+ */
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findAllByRevokedAtGreaterThanEqual(Instant revokedAt);
+
+    @Modifying
+    @Query("delete from TokenRevocation tokenRevocation where tokenRevocation.revokedAt < :revokedAt")
+    int deleteAllByRevokedAtBefore(@Param("revokedAt") Instant revokedAt);
+}
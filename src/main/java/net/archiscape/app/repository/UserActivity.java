@@ -0,0 +1,79 @@
+package net.archiscape.app.repository;
+
+import java.time.Instant;
+
+/**
+ * The last login and last seen dates of a user, not yet written.
+ */
+public final class UserActivity {
+
+    private final String login;
+
+    private final Instant lastLoginDate;
+
+    private final Instant lastSeenDate;
+
+    private UserActivity(String login, Instant lastLoginDate, Instant lastSeenDate) {
+        this.login = login;
+        this.lastLoginDate = lastLoginDate;
+        this.lastSeenDate = lastSeenDate;
+    }
+
+    /**
+     * @param login the login of the user.
+     * @param date the date of the login.
+     * @return the activity of a user who logged in, and was seen, at the date.
+     */
+    public static UserActivity login(String login, Instant date) {
+        return new UserActivity(login, date, date);
+    }
+
+    /**
+     * @param login the login of the user.
+     * @param date the date of the request.
+     * @return the activity of a user who was seen at the date.
+     */
+    public static UserActivity seen(String login, Instant date) {
+        return new UserActivity(login, null, date);
+    }
+
+    /**
+     * @param other the other activity of the same user.
+     * @return the activity keeping the latest dates of both.
+     */
+    public UserActivity merge(UserActivity other) {
+        return new UserActivity(login, latest(lastLoginDate, other.lastLoginDate), latest(lastSeenDate, other.lastSeenDate));
+    }
+
+    private static Instant latest(Instant date, Instant otherDate) {
+        if (date == null) {
+            return otherDate;
+        }
+        return otherDate == null || date.isAfter(otherDate) ? date : otherDate;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    /**
+     * @return the date of the last login, or {@code null} if the user only sent requests.
+     */
+    public Instant getLastLoginDate() {
+        return lastLoginDate;
+    }
+
+    public Instant getLastSeenDate() {
+        return lastSeenDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserActivity{" +
+            "login='" + login + '\'' +
+            ", lastLoginDate=" + lastLoginDate +
+            ", lastSeenDate=" + lastSeenDate +
+            "}";
+    }
+}
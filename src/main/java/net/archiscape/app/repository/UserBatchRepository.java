@@ -0,0 +1,29 @@
+package net.archiscape.app.repository;
+
+import java.util.Collection;
+import net.archiscape.app.domain.User;
+
+/**
+ * Batched inserts and updates of {@link User} entities.
+ */
+public interface UserBatchRepository {
+    /**
+     * Inserts new users and their authorities with JDBC batches, bypassing the persistence context.
+     * <p>
+     * The {@code IDENTITY} ids of the users prevent Hibernate from batching their inserts, and are not read back: the
+     * authorities are linked to the users by login.
+     *
+     * @param users the users to insert, without id.
+     */
+    void insertAll(Collection<User> users);
+
+    /**
+     * Updates the last login and last seen dates of users with a JDBC batch, bypassing the persistence context.
+     * <p>
+     * The dates are not mapped as updatable, and their update doesn't increment the version of the users: a user loaded
+     * before, or from the second-level cache, keeps its previous dates.
+     *
+     * @param activities the activities of the users, at most one per user.
+     */
+    void updateActivities(Collection<UserActivity> activities);
+}
@@ -0,0 +1,114 @@
+package net.archiscape.app.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.TimeZone;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.domain.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts and updates the users through the JDBC connection of the current transaction, in batches of the size of the collection.
+ */
+class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    // prettier-ignore
+    private static final String INSERT_USER =
+        "insert into jhi_user (login, password_hash, first_name, last_name, email, normalized_email, image_url, activated, " +
+        "lang_key, activation_key, reset_key, reset_date, created_by, created_date, last_modified_by, last_modified_date) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_AUTHORITY =
+        "insert into jhi_user_authority (user_id, authority_name) select id, ? from jhi_user where login = ?";
+
+    private static final String UPDATE_USER_ACTIVITY =
+        "update jhi_user set last_login_date = coalesce(?, last_login_date), last_seen_date = ? where login = ?";
+
+    /**
+     * Timestamps are stored in UTC, as with {@code hibernate.jdbc.time_zone}.
+     */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), UserBatchRepositoryImpl::setUserParameters);
+
+        List<String[]> userAuthorities = new ArrayList<>();
+        for (User user : users) {
+            for (Authority authority : user.getAuthorities()) {
+                userAuthorities.add(new String[] { authority.getName(), user.getLogin() });
+            }
+        }
+        if (!userAuthorities.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                INSERT_USER_AUTHORITY,
+                userAuthorities,
+                userAuthorities.size(),
+                (ps, userAuthority) -> {
+                    ps.setString(1, userAuthority[0]);
+                    ps.setString(2, userAuthority[1]);
+                }
+            );
+        }
+    }
+
+    @Override
+    public void updateActivities(Collection<UserActivity> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            UPDATE_USER_ACTIVITY,
+            activities,
+            activities.size(),
+            (ps, activity) -> {
+                setInstant(ps, 1, activity.getLastLoginDate());
+                setInstant(ps, 2, activity.getLastSeenDate());
+                ps.setString(3, activity.getLogin());
+            }
+        );
+    }
+
+    private static void setUserParameters(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getLogin());
+        ps.setString(2, user.getPassword());
+        ps.setString(3, user.getFirstName());
+        ps.setString(4, user.getLastName());
+        ps.setString(5, user.getEmail());
+        ps.setString(6, user.getNormalizedEmail());
+        ps.setString(7, user.getImageUrl());
+        ps.setBoolean(8, user.isActivated());
+        ps.setString(9, user.getLangKey());
+        ps.setString(10, user.getActivationKey());
+        ps.setString(11, user.getResetKey());
+        setInstant(ps, 12, user.getResetDate());
+        ps.setString(13, user.getCreatedBy());
+        setInstant(ps, 14, user.getCreatedDate());
+        ps.setString(15, user.getLastModifiedBy());
+        setInstant(ps, 16, user.getLastModifiedDate());
+    }
+
+    private static void setInstant(PreparedStatement ps, int index, Instant instant) throws SQLException {
+        if (instant == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.from(instant), Calendar.getInstance(UTC));
+        }
+    }
+}
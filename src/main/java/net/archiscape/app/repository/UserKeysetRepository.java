@@ -0,0 +1,19 @@
+package net.archiscape.app.repository;
+
+import net.archiscape.app.domain.User;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset pagination of the {@link User} entity.
+ */
+public interface UserKeysetRepository {
+    /**
+     * Reads the ids of the page following, or preceding, a keyset.
+     *
+     * @param specification the filter of the users, may be {@code null}.
+     * @param keyset the position to read from.
+     * @param size the maximum number of users in the page.
+     * @return the page of user ids, in the order of the keyset.
+     */
+    KeysetPage<Long> findIdsByKeyset(Specification<User> specification, Keyset keyset, int size);
+}
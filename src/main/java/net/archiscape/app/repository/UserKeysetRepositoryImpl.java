@@ -0,0 +1,116 @@
+package net.archiscape.app.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import javax.persistence.metamodel.SingularAttribute;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.domain.User_;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Reads the pages with a seek predicate and a limit, so that no row before the page is read. Only the ids and the sort
+ * keys are selected: no entity is loaded.
+ * <p>
+ * The users are sorted by the sort key, then by id: the sort is total, and a row is never skipped nor repeated when
+ * paging. The order is left to the database, so that an index on the key can serve it: {@code null} keys are expected to
+ * sort low, as in MySQL and H2. A backward page is read in the reverse order.
+ */
+class UserKeysetRepositoryImpl implements UserKeysetRepository {
+
+    private final EntityManager entityManager;
+
+    UserKeysetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public KeysetPage<Long> findIdsByKeyset(Specification<User> specification, Keyset keyset, int size) {
+        SingularAttribute<? super User, ?> attribute = entityManager
+            .getMetamodel()
+            .entity(User.class)
+            .getSingularAttribute(keyset.getProperty());
+        boolean ascending = keyset.getDirection().isAscending() != keyset.isBackward();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        Path<Long> id = root.get(User_.id);
+        Path<Comparable<Object>> key = root.get(keyset.getProperty());
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate filter = specification.toPredicate(root, query, cb);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        List<Order> orders = new ArrayList<>();
+        if (attribute.isId()) {
+            if (!keyset.isFirst()) {
+                predicates.add(ascending ? cb.gt(id, keyset.getLastId()) : cb.lt(id, keyset.getLastId()));
+            }
+        } else {
+            if (!keyset.isFirst()) {
+                predicates.add(seek(cb, key, id, attribute.isOptional(), ascending, keyset));
+            }
+            orders.add(ascending ? cb.asc(key) : cb.desc(key));
+        }
+        orders.add(ascending ? cb.asc(id) : cb.desc(id));
+        query.multiselect(id, key).where(predicates.toArray(new Predicate[0])).orderBy(orders);
+
+        List<Tuple> rows = new ArrayList<>(entityManager.createQuery(query).setMaxResults(size + 1).getResultList());
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows.remove(size);
+        }
+        if (keyset.isBackward()) {
+            Collections.reverse(rows);
+        }
+        List<Long> ids = rows.stream().map(row -> row.get(id)).collect(Collectors.toList());
+        if (rows.isEmpty()) {
+            return new KeysetPage<>(ids, null, null);
+        }
+        Tuple first = rows.get(0);
+        Tuple last = rows.get(rows.size() - 1);
+        boolean hasNext = keyset.isBackward() || hasMore;
+        boolean hasPrevious = keyset.isBackward() ? hasMore : !keyset.isFirst();
+        return new KeysetPage<>(
+            ids,
+            hasNext ? keyset.after(last.get(key), last.get(id)) : null,
+            hasPrevious ? keyset.before(first.get(key), first.get(id)) : null
+        );
+    }
+
+    /**
+     * Matches the rows after the keyset in the order of the query.
+     */
+    private static Predicate seek(
+        CriteriaBuilder cb,
+        Path<Comparable<Object>> key,
+        Path<Long> id,
+        boolean nullable,
+        boolean ascending,
+        Keyset keyset
+    ) {
+        @SuppressWarnings("unchecked")
+        Comparable<Object> lastKey = (Comparable<Object>) keyset.getLastKey();
+        Long lastId = keyset.getLastId();
+        if (ascending) {
+            // null keys come first
+            if (lastKey == null) {
+                return cb.or(cb.and(cb.isNull(key), cb.gt(id, lastId)), cb.isNotNull(key));
+            }
+            return cb.or(cb.greaterThan(key, lastKey), cb.and(cb.equal(key, lastKey), cb.gt(id, lastId)));
+        }
+        // null keys come last
+        if (lastKey == null) {
+            return cb.and(cb.isNull(key), cb.lt(id, lastId));
+        }
+        Predicate after = cb.or(cb.lessThan(key, lastKey), cb.and(cb.equal(key, lastKey), cb.lt(id, lastId)));
+        return nullable ? cb.or(after, cb.isNull(key)) : after;
+    }
+}
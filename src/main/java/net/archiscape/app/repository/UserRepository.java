@@ -1,30 +1,144 @@
 package net.archiscape.app.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.projection.ManagedUserAuthorityView;
+import net.archiscape.app.repository.projection.ManagedUserView;
+import net.archiscape.app.repository.projection.PublicUserView;
+import net.archiscape.app.repository.projection.UserAuthorityView;
+import net.archiscape.app.repository.projection.UserConflictView;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserKeysetRepository, UserBatchRepository {
+    String SELECT_PUBLIC_USER_VIEW = "select new net.archiscape.app.repository.projection.PublicUserView(u.id, u.login) from User u";
+
+    /**
+     * Rows fetched per round trip when streaming users.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    // prettier-ignore
+    String SELECT_MANAGED_USER_VIEW =
+        "select new net.archiscape.app.repository.projection.ManagedUserView(" +
+        "u.id, u.login, u.firstName, u.lastName, u.email, u.imageUrl, u.activated, u.langKey, " +
+        "u.createdBy, u.createdDate, u.lastModifiedBy, u.lastModifiedDate, u.lastLoginDate, u.lastSeenDate) from User u";
+
     Optional<User> findOneByActivationKey(String activationKey);
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
     Optional<User> findOneByResetKey(String resetKey);
-    Optional<User> findOneByEmailIgnoreCase(String email);
+    Optional<User> findOneByNormalizedEmail(String normalizedEmail);
     Optional<User> findOneByLogin(String login);
 
+    /**
+     * Finds a user by email, ignoring the case through the indexed normalized email.
+     *
+     * @param email the email, in any case.
+     * @return the user.
+     */
+    default Optional<User> findOneByEmailIgnoreCase(String email) {
+        return findOneByNormalizedEmail(User.normalizeEmail(email));
+    }
+
     @EntityGraph(attributePaths = "authorities")
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
+    Optional<User> findOneWithAuthoritiesByNormalizedEmail(String normalizedEmail);
+
+    default Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
+        return findOneWithAuthoritiesByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    /**
+     * Finds in a single statement the users holding a login or an email, which are at most two.
+     *
+     * @param login the login.
+     * @param normalizedEmail the normalized email, or {@code null}.
+     * @return the users holding the login or the email.
+     */
+    @Query(
+        "select new net.archiscape.app.repository.projection.UserConflictView(u.id, u.login, u.normalizedEmail, u.activated) " +
+        "from User u where u.login = :login or u.normalizedEmail = :normalizedEmail"
+    )
+    List<UserConflictView> findAllConflictsByLoginOrNormalizedEmail(
+        @Param("login") String login,
+        @Param("normalizedEmail") String normalizedEmail
+    );
+
+    @Query(
+        value = SELECT_PUBLIC_USER_VIEW + " where u.activated = true",
+        countQuery = "select count(u) from User u where u.activated = true"
+    )
+    Page<PublicUserView> findAllPublicUserViews(Pageable pageable);
+
+    @Query(SELECT_PUBLIC_USER_VIEW + " where u.id in :ids")
+    List<PublicUserView> findAllPublicUserViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = SELECT_MANAGED_USER_VIEW, countQuery = "select count(u) from User u")
+    Page<ManagedUserView> findAllManagedUserViews(Pageable pageable);
+
+    @Query(SELECT_MANAGED_USER_VIEW + " where u.id in :ids")
+    List<ManagedUserView> findAllManagedUserViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select new net.archiscape.app.repository.projection.UserAuthorityView(u.id, a.name) " +
+        "from User u join u.authorities a where u.id in :userIds"
+    )
+    List<UserAuthorityView> findAllUserAuthorityViewsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Streams all the users with their authorities, sorted by id, so that the rows of a user are consecutive.
+     * <p>
+     * The stream must be consumed, and closed, in a transaction.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(
+        "select new net.archiscape.app.repository.projection.ManagedUserAuthorityView(" +
+        "u.id, u.login, u.firstName, u.lastName, u.email, u.imageUrl, u.activated, u.langKey, " +
+        "u.createdBy, u.createdDate, u.lastModifiedBy, u.lastModifiedDate, u.lastLoginDate, u.lastSeenDate, a.name) " +
+        "from User u left join u.authorities a order by u.id"
+    )
+    Stream<ManagedUserAuthorityView> streamAllManagedUserAuthorityViews();
+
+    long countByActivatedIsTrue();
+
+    @Query("select u.login from User u where u.login in :logins")
+    Set<String> findAllLoginsByLoginIn(@Param("logins") Collection<String> logins);
+
+    @Query("select u.normalizedEmail from User u where u.normalizedEmail in :normalizedEmails")
+    Set<String> findAllNormalizedEmailsByNormalizedEmailIn(@Param("normalizedEmails") Collection<String> normalizedEmails);
+
+    @Query("select u.id from User u where u.activated = false and u.activationKey is not null and u.createdDate < :dateTime")
+    List<Long> findAllIdsByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
+        @Param("dateTime") Instant dateTime,
+        Pageable pageable
+    );
 
-    Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+    /**
+     * Deletes the users which are still not activated. Hibernate first deletes their rows of {@code jhi_user_authority}
+     * with the same condition, then evicts the cached users.
+     *
+     * @param ids the ids of the users.
+     * @return the number of deleted users.
+     */
+    @Modifying
+    @Query("delete from User u where u.id in :ids and u.activated = false")
+    int deleteAllByIdInAndActivatedIsFalse(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,55 @@
+package net.archiscape.app.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection of a {@link ManagedUserView} joined with one of its authorities: a user is read as one row per authority,
+ * or as a single row without authority.
+ */
+public class ManagedUserAuthorityView extends ManagedUserView {
+
+    private final String authorityName;
+
+    public ManagedUserAuthorityView(
+        Long id,
+        String login,
+        String firstName,
+        String lastName,
+        String email,
+        String imageUrl,
+        boolean activated,
+        String langKey,
+        String createdBy,
+        Instant createdDate,
+        String lastModifiedBy,
+        Instant lastModifiedDate,
+        Instant lastLoginDate,
+        Instant lastSeenDate,
+        String authorityName
+    ) {
+        super(
+            id,
+            login,
+            firstName,
+            lastName,
+            email,
+            imageUrl,
+            activated,
+            langKey,
+            createdBy,
+            createdDate,
+            lastModifiedBy,
+            lastModifiedDate,
+            lastLoginDate,
+            lastSeenDate
+        );
+        this.authorityName = authorityName;
+    }
+
+    /**
+     * @return the name of the authority, or {@code null} if the user has none.
+     */
+    public String getAuthorityName() {
+        return authorityName;
+    }
+}
@@ -0,0 +1,126 @@
+package net.archiscape.app.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection of the attributes of a {@link net.archiscape.app.domain.User} shown to the administrators, without its
+ * credentials and keys. The authorities are read with a separate {@link UserAuthorityView} query.
+ */
+public class ManagedUserView {
+
+    private final Long id;
+
+    private final String login;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final String email;
+
+    private final String imageUrl;
+
+    private final boolean activated;
+
+    private final String langKey;
+
+    private final String createdBy;
+
+    private final Instant createdDate;
+
+    private final String lastModifiedBy;
+
+    private final Instant lastModifiedDate;
+
+    private final Instant lastLoginDate;
+
+    private final Instant lastSeenDate;
+
+    public ManagedUserView(
+        Long id,
+        String login,
+        String firstName,
+        String lastName,
+        String email,
+        String imageUrl,
+        boolean activated,
+        String langKey,
+        String createdBy,
+        Instant createdDate,
+        String lastModifiedBy,
+        Instant lastModifiedDate,
+        Instant lastLoginDate,
+        Instant lastSeenDate
+    ) {
+        this.id = id;
+        this.login = login;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.imageUrl = imageUrl;
+        this.activated = activated;
+        this.langKey = langKey;
+        this.createdBy = createdBy;
+        this.createdDate = createdDate;
+        this.lastModifiedBy = lastModifiedBy;
+        this.lastModifiedDate = lastModifiedDate;
+        this.lastLoginDate = lastLoginDate;
+        this.lastSeenDate = lastSeenDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public boolean isActivated() {
+        return activated;
+    }
+
+    public String getLangKey() {
+        return langKey;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public String getLastModifiedBy() {
+        return lastModifiedBy;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public Instant getLastLoginDate() {
+        return lastLoginDate;
+    }
+
+    public Instant getLastSeenDate() {
+        return lastSeenDate;
+    }
+}
@@ -0,0 +1,24 @@
+package net.archiscape.app.repository.projection;
+
+/**
+ * Projection of the public attributes of a {@link net.archiscape.app.domain.User}.
+ */
+public class PublicUserView {
+
+    private final Long id;
+
+    private final String login;
+
+    public PublicUserView(Long id, String login) {
+        this.id = id;
+        this.login = login;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+}
@@ -0,0 +1,24 @@
+package net.archiscape.app.repository.projection;
+
+/**
+ * Projection of a row of the {@code jhi_user_authority} join table.
+ */
+public class UserAuthorityView {
+
+    private final Long userId;
+
+    private final String authorityName;
+
+    public UserAuthorityView(Long userId, String authorityName) {
+        this.userId = userId;
+        this.authorityName = authorityName;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getAuthorityName() {
+        return authorityName;
+    }
+}
@@ -0,0 +1,38 @@
+package net.archiscape.app.repository.projection;
+
+/**
+ * Projection of a {@link net.archiscape.app.domain.User} holding a login or an email wanted by another user.
+ */
+public class UserConflictView {
+
+    private final Long id;
+
+    private final String login;
+
+    private final String normalizedEmail;
+
+    private final boolean activated;
+
+    public UserConflictView(Long id, String login, String normalizedEmail, boolean activated) {
+        this.id = id;
+        this.login = login;
+        this.normalizedEmail = normalizedEmail;
+        this.activated = activated;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    public boolean isActivated() {
+        return activated;
+    }
+}
@@ -0,0 +1,104 @@
+package net.archiscape.app.security;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.management.SecurityMetersService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limits of the endpoints whose every call costs a password verification, or a database lookup and an email.
+ * <p>
+ * Calls are limited both by the login (or email) they target and by the client IP address they come from. Behind a
+ * reverse proxy, the client IP address is only known with {@code server.forward-headers-strategy} set, as in the
+ * {@code prod} profile: without it, all the clients share the address of the proxy.
+ */
+@Component
+public class AuthenticationRateLimiter {
+
+    private final Logger log = LoggerFactory.getLogger(AuthenticationRateLimiter.class);
+
+    private final boolean enabled;
+
+    private final RateLimiter authenticationPerLogin;
+
+    private final RateLimiter authenticationPerIp;
+
+    private final RateLimiter passwordResetPerLogin;
+
+    private final RateLimiter passwordResetPerIp;
+
+    private final SecurityMetersService securityMetersService;
+
+    public AuthenticationRateLimiter(ApplicationProperties applicationProperties, SecurityMetersService securityMetersService) {
+        ApplicationProperties.Security.RateLimit properties = applicationProperties.getSecurity().getRateLimit();
+        this.enabled = properties.isEnabled();
+        this.authenticationPerLogin = createRateLimiter(properties.getAuthentication().getPerLogin(), properties.getMaxKeys());
+        this.authenticationPerIp = createRateLimiter(properties.getAuthentication().getPerIp(), properties.getMaxKeys());
+        this.passwordResetPerLogin = createRateLimiter(properties.getPasswordReset().getPerLogin(), properties.getMaxKeys());
+        this.passwordResetPerIp = createRateLimiter(properties.getPasswordReset().getPerIp(), properties.getMaxKeys());
+        this.securityMetersService = securityMetersService;
+    }
+
+    /**
+     * Checks an authentication attempt.
+     *
+     * @param login the login or email to authenticate.
+     * @param clientIp the IP address of the client.
+     * @throws RateLimitExceededException if the attempt exceeds a rate limit.
+     */
+    public void checkAuthentication(String login, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long waitInNanos = authenticationPerIp.tryAcquire(clientIp);
+        if (waitInNanos > 0) {
+            securityMetersService.trackAuthenticationRateLimitedByIp();
+            throw rejection("authentication", waitInNanos);
+        }
+        waitInNanos = authenticationPerLogin.tryAcquire(normalize(login));
+        if (waitInNanos > 0) {
+            securityMetersService.trackAuthenticationRateLimitedByLogin();
+            throw rejection("authentication", waitInNanos);
+        }
+    }
+
+    /**
+     * Checks a password reset request.
+     *
+     * @param mail the email of the account to reset.
+     * @param clientIp the IP address of the client.
+     * @throws RateLimitExceededException if the request exceeds a rate limit.
+     */
+    public void checkPasswordReset(String mail, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long waitInNanos = passwordResetPerIp.tryAcquire(clientIp);
+        if (waitInNanos > 0) {
+            securityMetersService.trackPasswordResetRateLimitedByIp();
+            throw rejection("password reset", waitInNanos);
+        }
+        waitInNanos = passwordResetPerLogin.tryAcquire(normalize(mail));
+        if (waitInNanos > 0) {
+            securityMetersService.trackPasswordResetRateLimitedByLogin();
+            throw rejection("password reset", waitInNanos);
+        }
+    }
+
+    private RateLimitExceededException rejection(String operation, long waitInNanos) {
+        long retryAfterSeconds = Math.max(1, (waitInNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.debug("Rejected {} attempt, retry after {} seconds", operation, retryAfterSeconds);
+        return new RateLimitExceededException("Too many " + operation + " attempts", retryAfterSeconds);
+    }
+
+    private static String normalize(String login) {
+        return login == null ? "" : login.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static RateLimiter createRateLimiter(ApplicationProperties.Security.RateLimit.Policy policy, int maxKeys) {
+        return new RateLimiter(policy.getCapacity(), policy.getPeriodInSeconds(), maxKeys);
+    }
+}
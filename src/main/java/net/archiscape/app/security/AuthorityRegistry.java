@@ -0,0 +1,275 @@
+package net.archiscape.app.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.repository.AuthorityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of the authorities of the {@code jhi_authority} table, holding one shared {@link GrantedAuthority} per
+ * authority.
+ * <p>
+ * The table is loaded on first use and kept in an immutable snapshot, replaced when {@link #refresh()} finds that the
+ * table has changed. Until a first load succeeds, the authorities are empty and the load is retried at most once per
+ * retry delay, by a single thread: the callers never wait for an unreachable database.
+ * <p>
+ * The registry serves the authorities of the users without querying the table, interns the authorities read from JWTs,
+ * and encodes a set of authorities as a bitset over the sorted authority names, prefixed by a fingerprint of these
+ * names: a compact claim issued against another set of authorities is never decoded with the wrong bits.
+ */
+@Component
+public class AuthorityRegistry {
+
+    /**
+     * At most one bit per authority fits in the compact encoding.
+     */
+    static final int MAX_COMPACT_AUTHORITIES = Long.SIZE;
+
+    private static final char COMPACT_SEPARATOR = ':';
+
+    private static final int MAX_CACHED_CLAIMS = 1024;
+
+    private static final long LOAD_RETRY_DELAY_IN_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final Snapshot EMPTY = new Snapshot(Collections.emptyList());
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    private volatile long nextLoadNanos = System.nanoTime();
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * Reloads the authorities from the database, keeping the current snapshot and its caches if they are unchanged.
+     */
+    @Scheduled(
+        initialDelayString = "${application.security.authorities.refresh-interval-in-millis:300000}",
+        fixedDelayString = "${application.security.authorities.refresh-interval-in-millis:300000}"
+    )
+    public void refresh() {
+        Snapshot loaded = load();
+        Snapshot current = snapshot;
+        // an empty table is not kept, as it was most likely not read
+        if (!loaded.isEmpty() && !current.names.equals(loaded.names)) {
+            log.info("Authorities changed to {}", loaded.names);
+            snapshot = loaded;
+        }
+    }
+
+    /**
+     * Returns the names of all the authorities, sorted.
+     *
+     * @return an immutable list of the authority names.
+     */
+    public List<String> getNames() {
+        return snapshot().names;
+    }
+
+    /**
+     * Finds an authority, to be referenced by a user without loading it.
+     *
+     * @param name the name of the authority.
+     * @return a new detached authority, or empty if the authority is unknown.
+     */
+    public Optional<Authority> findAuthority(String name) {
+        if (!snapshot().byName.containsKey(name)) {
+            return Optional.empty();
+        }
+        Authority authority = new Authority();
+        authority.setName(name);
+        return Optional.of(authority);
+    }
+
+    /**
+     * Returns the shared {@link GrantedAuthority} of an authority, or a new one if the authority is unknown.
+     *
+     * @param name the name of the authority.
+     * @return the granted authority.
+     */
+    public GrantedAuthority getGrantedAuthority(String name) {
+        GrantedAuthority authority = snapshot().byName.get(name);
+        return authority != null ? authority : new SimpleGrantedAuthority(name);
+    }
+
+    /**
+     * Converts a comma separated list of authority names, as found in legacy JWTs, to granted authorities.
+     *
+     * @param names the comma separated authority names.
+     * @return an immutable list of granted authorities, shared between the claims holding the same names.
+     */
+    public List<GrantedAuthority> fromNames(String names) {
+        Snapshot current = snapshot();
+        List<GrantedAuthority> authorities = current.byNames.get(names);
+        if (authorities == null) {
+            List<GrantedAuthority> parsed = new ArrayList<>();
+            for (String name : names.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    GrantedAuthority authority = current.byName.get(name);
+                    parsed.add(authority != null ? authority : new SimpleGrantedAuthority(name));
+                }
+            }
+            authorities = Collections.unmodifiableList(parsed);
+            if (current.byNames.size() < MAX_CACHED_CLAIMS) {
+                current.byNames.putIfAbsent(names, authorities);
+            }
+        }
+        return authorities;
+    }
+
+    /**
+     * Encodes authorities as a compact claim.
+     *
+     * @param authorities the authorities to encode.
+     * @return the compact claim, or {@code null} if one of the authorities is not in the registry.
+     */
+    public String encode(Collection<? extends GrantedAuthority> authorities) {
+        Snapshot current = snapshot();
+        if (current.isEmpty()) {
+            return null;
+        }
+        long bits = 0;
+        for (GrantedAuthority authority : authorities) {
+            Integer index = current.indexByName.get(authority.getAuthority());
+            if (index == null) {
+                return null;
+            }
+            bits |= 1L << index;
+        }
+        return current.fingerprint + COMPACT_SEPARATOR + Long.toUnsignedString(bits, Character.MAX_RADIX);
+    }
+
+    /**
+     * Decodes a compact claim created by {@link #encode(Collection)}.
+     *
+     * @param claim the compact claim.
+     * @return an immutable list of the shared granted authorities, or {@code null} if the claim is malformed or was not
+     * encoded against the current authorities.
+     */
+    public List<GrantedAuthority> decode(String claim) {
+        Snapshot current = snapshot();
+        int separator = claim.indexOf(COMPACT_SEPARATOR);
+        if (separator != current.fingerprint.length() || !claim.startsWith(current.fingerprint)) {
+            return null;
+        }
+        long bits;
+        try {
+            bits = Long.parseUnsignedLong(claim, separator + 1, claim.length(), Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (Long.numberOfLeadingZeros(bits) < Long.SIZE - current.authorities.length) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = current.byBits.get(bits);
+        if (authorities == null) {
+            List<GrantedAuthority> decoded = new ArrayList<>(Long.bitCount(bits));
+            for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+                decoded.add(current.authorities[Long.numberOfTrailingZeros(remaining)]);
+            }
+            authorities = Collections.unmodifiableList(decoded);
+            if (current.byBits.size() < MAX_CACHED_CLAIMS) {
+                current.byBits.putIfAbsent(bits, authorities);
+            }
+        }
+        return authorities;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current.isEmpty() && System.nanoTime() - nextLoadNanos >= 0 && loadLock.tryLock()) {
+            try {
+                current = snapshot;
+                if (current.isEmpty() && System.nanoTime() - nextLoadNanos >= 0) {
+                    Snapshot loaded = load();
+                    // an empty table is not kept, as the database may not be initialized yet
+                    if (loaded.isEmpty()) {
+                        nextLoadNanos = System.nanoTime() + LOAD_RETRY_DELAY_IN_NANOS;
+                    } else {
+                        snapshot = loaded;
+                        current = loaded;
+                    }
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        List<String> names = new ArrayList<>();
+        try {
+            for (Authority authority : authorityRepository.findAll()) {
+                names.add(authority.getName());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not load the authorities: {}", e.getMessage());
+            return EMPTY;
+        }
+        Collections.sort(names);
+        log.debug("Loaded {} authorities", names.size());
+        return new Snapshot(names);
+    }
+
+    private static final class Snapshot {
+
+        private final List<String> names;
+
+        private final GrantedAuthority[] authorities;
+
+        private final Map<String, GrantedAuthority> byName;
+
+        private final Map<String, Integer> indexByName;
+
+        private final String fingerprint;
+
+        private final ConcurrentMap<String, List<GrantedAuthority>> byNames = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Long, List<GrantedAuthority>> byBits = new ConcurrentHashMap<>();
+
+        private Snapshot(List<String> names) {
+            this.names = Collections.unmodifiableList(new ArrayList<>(names));
+            this.authorities = new GrantedAuthority[names.size()];
+            Map<String, GrantedAuthority> authoritiesByName = new HashMap<>();
+            Map<String, Integer> indexesByName = new HashMap<>();
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                authorities[i] = new SimpleGrantedAuthority(name);
+                authoritiesByName.put(name, authorities[i]);
+                if (i < MAX_COMPACT_AUTHORITIES) {
+                    indexesByName.put(name, i);
+                }
+                crc.update(name.getBytes(StandardCharsets.UTF_8));
+                crc.update(',');
+            }
+            this.byName = Collections.unmodifiableMap(authoritiesByName);
+            this.indexByName = Collections.unmodifiableMap(indexesByName);
+            this.fingerprint = Long.toString(crc.getValue(), Character.MAX_RADIX);
+        }
+
+        private boolean isEmpty() {
+            return names.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.archiscape.app.security;
+
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt cost whose hashing time on this machine is the closest to a target latency, without exceeding it.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BCryptStrengthCalibrator() {}
+
+    /**
+     * Measures the hashing time of increasing costs.
+     *
+     * @param targetLatencyInMillis the maximum time a hash should take.
+     * @param minStrength the cost to use even if it is slower than the target.
+     * @param maxStrength the highest cost to consider.
+     * @return the calibrated cost.
+     */
+    public static int calibrate(long targetLatencyInMillis, int minStrength, int maxStrength) {
+        // warm up, so that the first measure is not distorted by class loading and JIT compilation
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+
+        long targetLatencyInNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyInMillis);
+        int strength = minStrength;
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(candidate));
+            long elapsedInNanos = System.nanoTime() - start;
+            log.debug("BCrypt cost {} takes {} ms", candidate, TimeUnit.NANOSECONDS.toMillis(elapsedInNanos));
+            if (elapsedInNanos > targetLatencyInNanos) {
+                break;
+            }
+            strength = candidate;
+            if (elapsedInNanos * 2 > targetLatencyInNanos) {
+                // each cost increment doubles the hashing time
+                break;
+            }
+        }
+        log.info("Calibrated BCrypt cost to {} for a target latency of {} ms", strength, targetLatencyInMillis);
+        return strength;
+    }
+}
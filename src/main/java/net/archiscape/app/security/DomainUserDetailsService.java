@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -17,16 +18,30 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * Also stores the passwords re-hashed by Spring Security after a successful login, when their hash is outdated.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    private static final EmailValidator EMAIL_VALIDATOR = new EmailValidator();
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserDetailsCache userDetailsCache;
+
+    private final UserCacheEvictionChannel userCacheEvictionChannel;
+
+    public DomainUserDetailsService(
+        UserRepository userRepository,
+        UserDetailsCache userDetailsCache,
+        UserCacheEvictionChannel userCacheEvictionChannel
+    ) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.userCacheEvictionChannel = userCacheEvictionChannel;
     }
 
     @Override
@@ -34,18 +49,44 @@ public class DomainUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
-        if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
-                .map(user -> createSpringSecurityUser(login, user))
-                .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
+        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+        UserDetails cachedUserDetails = userDetailsCache.get(lowercaseLogin);
+        if (cachedUserDetails != null) {
+            return cachedUserDetails;
         }
 
-        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
-            .map(user -> createSpringSecurityUser(lowercaseLogin, user))
-            .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
+        long cacheGeneration = userDetailsCache.generation();
+        UserDetails userDetails;
+        if (EMAIL_VALIDATOR.isValid(login, null)) {
+            userDetails =
+                userRepository
+                    .findOneWithAuthoritiesByEmailIgnoreCase(login)
+                    .map(user -> createSpringSecurityUser(login, user))
+                    .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
+        } else {
+            userDetails =
+                userRepository
+                    .findOneWithAuthoritiesByLogin(lowercaseLogin)
+                    .map(user -> createSpringSecurityUser(lowercaseLogin, user))
+                    .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
+        }
+        userDetailsCache.put(lowercaseLogin, userDetails, cacheGeneration);
+        return userDetails;
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String login = userDetails.getUsername();
+        userRepository
+            .findOneByLogin(login)
+            .ifPresent(user -> {
+                user.setPassword(newPassword);
+                log.debug("Re-hashed password for User: {}", login);
+            });
+        // a concurrent login would otherwise reload the former hash before the commit
+        userCacheEvictionChannel.publishAfterCommit(login);
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
     }
 
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
@@ -0,0 +1,25 @@
+package net.archiscape.app.security;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link UserCacheEvictionChannel} delivering evictions to the listeners of the current node only.
+ */
+public class InProcessUserCacheEvictionChannel implements UserCacheEvictionChannel {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String login) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(login);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,75 @@
+package net.archiscape.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket rate limiter, keeping one bucket per key.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its "theoretical arrival time" (the generic cell rate algorithm):
+ * a bucket allowing {@code capacity} requests per {@code period} has room for a request as long as this time is no
+ * more than one period ahead of now. Taking a token is then a single compare-and-set, without lock nor allocation.
+ * <p>
+ * The buckets are held by a Caffeine cache bounded to {@code maxKeys}. A bucket idle for a whole period is full again,
+ * and expires. Beyond the maximum, the least frequently used buckets are evicted in amortized constant time: the
+ * buckets of the keys being limited are kept under a flood of new keys.
+ */
+public class RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final long emissionIntervalInNanos;
+
+    private final long periodInNanos;
+
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(int capacity, long periodInSeconds, int maxKeys) {
+        this(capacity, periodInSeconds, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int capacity, long periodInSeconds, int maxKeys, LongSupplier nanoClock) {
+        this.periodInNanos = TimeUnit.SECONDS.toNanos(periodInSeconds);
+        this.emissionIntervalInNanos = periodInNanos / capacity;
+        this.nanoClock = nanoClock;
+        this.buckets =
+            Caffeine
+                .newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(periodInNanos, TimeUnit.NANOSECONDS)
+                .ticker(nanoClock::getAsLong)
+                // the maintenance runs on the calling threads, not on the common pool
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param key the key to limit.
+     * @return {@code 0} if a token was taken, otherwise the time to wait before one is available, in nanoseconds.
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long arrivalTime = bucket.get();
+            long newArrivalTime = (arrivalTime - now > 0 ? arrivalTime : now) + emissionIntervalInNanos;
+            long ahead = newArrivalTime - now;
+            if (ahead > periodInNanos) {
+                return ahead - periodInNanos;
+            }
+            if (bucket.compareAndSet(arrivalTime, newArrivalTime)) {
+                return 0;
+            }
+        }
+    }
+
+    int size() {
+        buckets.cleanUp();
+        return (int) buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,145 @@
+package net.archiscape.app.security;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.TokenRevocation;
+import net.archiscape.app.repository.TokenRevocationRepository;
+import net.archiscape.app.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Revocations of the JWTs issued to a user before a given instant, stored in the {@code token_revocation} table.
+ * <p>
+ * Each node mirrors the table in memory, so that checking a token never queries the database: a Bloom filter of the
+ * revoked logins answers most lookups with a few bit tests, and an exact map of the revocation instant of each login
+ * confirms its positive answers. The mirror is refreshed incrementally from the revocations recorded since the last
+ * refresh, with an overlap absorbing slow commits and clock skew between nodes. Revocations older than the longest
+ * token validity, access or refresh, no longer match any token, and are purged.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final double BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private static final long REFRESH_OVERLAP_IN_SECONDS = 60;
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    private final int expectedRevocations;
+
+    private final long retentionInSeconds;
+
+    /**
+     * The revocation instant of each login, in epoch seconds.
+     */
+    private final ConcurrentMap<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter revokedLogins;
+
+    private volatile Instant refreshedUntil = Instant.EPOCH;
+
+    public TokenRevocationList(
+        TokenRevocationRepository tokenRevocationRepository,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.expectedRevocations = applicationProperties.getSecurity().getTokenRevocation().getExpectedRevocations();
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        ApplicationProperties.Security.RefreshToken refreshToken = applicationProperties.getSecurity().getRefreshToken();
+        // refresh tokens issued before a revocation are revoked as well
+        this.retentionInSeconds =
+            Math.max(
+                Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe()),
+                Math.max(refreshToken.getTokenValidityInSeconds(), refreshToken.getTokenValidityInSecondsForRememberMe())
+            );
+        this.revokedLogins = new BloomFilter(expectedRevocations, BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /**
+     * Revokes all the tokens issued to a user until now.
+     * <p>
+     * The revocation is stored in the current transaction, and applied to this node once it is committed; the other
+     * nodes apply it on their next refresh.
+     *
+     * @param login the login of the user.
+     */
+    public void revoke(String login) {
+        TokenRevocation tokenRevocation = new TokenRevocation();
+        tokenRevocation.setLogin(login);
+        tokenRevocation.setRevokedAt(Instant.now());
+        tokenRevocationRepository.save(tokenRevocation);
+        log.debug("Revoked the tokens of User: {}", login);
+        TransactionUtils.afterCommit(() -> apply(tokenRevocation));
+    }
+
+    /**
+     * Checks if a token has been revoked, without querying the database.
+     * <p>
+     * JWT issue times have a one second precision: a token issued during the second of the revocation is still valid.
+     *
+     * @param login the subject of the token.
+     * @param issuedAtInSeconds the issue time of the token in epoch seconds, or {@code 0} if the token has none.
+     * @return {@code true} if the token was issued before the last revocation of the user.
+     */
+    public boolean isRevoked(String login, long issuedAtInSeconds) {
+        if (!revokedLogins.mightContain(login)) {
+            return false;
+        }
+        Long revokedAt = revokedBefore.get(login);
+        return revokedAt != null && issuedAtInSeconds < revokedAt;
+    }
+
+    /**
+     * Applies the revocations recorded by the other nodes since the last refresh.
+     */
+    @Scheduled(fixedDelayString = "${application.security.token-revocation.refresh-interval-in-millis:10000}")
+    public void refresh() {
+        Instant refreshStart = Instant.now();
+        Instant since = refreshedUntil.minus(REFRESH_OVERLAP_IN_SECONDS, ChronoUnit.SECONDS);
+        try {
+            tokenRevocationRepository.findAllByRevokedAtGreaterThanEqual(since).forEach(this::apply);
+            refreshedUntil = refreshStart;
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh the token revocations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Revocations which are older than the longest token validity are useless, and should be regularly deleted.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional
+    public void removeExpiredRevocations() {
+        Instant expiredBefore = Instant.now().minus(retentionInSeconds, ChronoUnit.SECONDS);
+        int deleted = tokenRevocationRepository.deleteAllByRevokedAtBefore(expiredBefore);
+        log.debug("Deleted {} expired token revocations", deleted);
+
+        // a Bloom filter can't forget, so it is rebuilt from the remaining revocations
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < expiredBefore.getEpochSecond());
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revokedBefore.size()), BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY);
+        revokedBefore.keySet().forEach(rebuilt::put);
+        revokedLogins = rebuilt;
+        // revocations applied while rebuilding may have missed the new filter
+        revokedBefore.keySet().forEach(rebuilt::put);
+    }
+
+    private void apply(TokenRevocation tokenRevocation) {
+        String login = tokenRevocation.getLogin();
+        revokedBefore.merge(login, tokenRevocation.getRevokedAt().getEpochSecond(), Math::max);
+        revokedLogins.put(login);
+    }
+}
@@ -0,0 +1,131 @@
+package net.archiscape.app.security;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PreDestroy;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.repository.UserActivity;
+import net.archiscape.app.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tracks the last login and last seen dates of the users, written behind the requests.
+ * <p>
+ * The dates of a user are coalesced in memory until the next flush, so that a user sending many requests costs a
+ * single row update per interval, and the updates of all the users are sent as JDBC batches. The dates are not
+ * versioned: the entity tags of the users don't change with their activity, and a user read from the second-level
+ * cache may show dates older than the flush interval, until its region expires or it is modified.
+ */
+@Component
+public class UserActivityTracker {
+
+    private final Logger log = LoggerFactory.getLogger(UserActivityTracker.class);
+
+    private final ConcurrentMap<String, UserActivity> pendingActivities = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public UserActivityTracker(
+        UserRepository userRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getUserActivity().getBatchSize();
+    }
+
+    /**
+     * Records that a user logged in now.
+     *
+     * @param login the login of the user.
+     */
+    public void recordLogin(String login) {
+        record(UserActivity.login(login, Instant.now()));
+    }
+
+    /**
+     * Records that a user sent an authenticated request now.
+     *
+     * @param login the login of the user.
+     */
+    public void recordSeen(String login) {
+        record(UserActivity.seen(login, Instant.now()));
+    }
+
+    private void record(UserActivity activity) {
+        pendingActivities.merge(activity.getLogin(), activity, UserActivity::merge);
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        recordLogin(event.getAuthentication().getName());
+    }
+
+    /**
+     * @return the number of users whose activity is not written yet.
+     */
+    public int getPendingCount() {
+        return pendingActivities.size();
+    }
+
+    /**
+     * Writes the pending activities, by batches each in its own transaction.
+     * <p>
+     * The activities of a batch which can't be written are kept, merged with those recorded meanwhile, until the next
+     * flush. The activities left are written on shutdown.
+     */
+    @Scheduled(
+        initialDelayString = "${application.user-activity.flush-interval-in-millis:10000}",
+        fixedDelayString = "${application.user-activity.flush-interval-in-millis:10000}"
+    )
+    @PreDestroy
+    public synchronized void flush() {
+        int written = 0;
+        List<UserActivity> batch = new ArrayList<>(batchSize);
+        for (String login : pendingActivities.keySet()) {
+            UserActivity activity = pendingActivities.remove(login);
+            if (activity != null) {
+                batch.add(activity);
+            }
+            if (batch.size() == batchSize) {
+                written += write(batch);
+            }
+        }
+        written += write(batch);
+        if (written > 0) {
+            log.debug("Wrote the activity of {} users", written);
+        }
+    }
+
+    private int write(List<UserActivity> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.updateActivities(batch));
+        } catch (DataAccessException e) {
+            log.warn("Could not write the activity of {} users, retrying on the next flush", size, e);
+            batch.forEach(this::record);
+            size = 0;
+        }
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,38 @@
+package net.archiscape.app.security;
+
+import java.util.function.Consumer;
+import net.archiscape.app.util.TransactionUtils;
+
+/**
+ * Channel broadcasting that the cached security details of a user are stale and must be evicted.
+ * <p>
+ * The default {@link InProcessUserCacheEvictionChannel} only reaches the current node. Clustered deployments can
+ * declare their own bean of this type (backed by a message broker for instance), which must deliver every published
+ * eviction to the subscribers of all the nodes, the publishing one included.
+ */
+public interface UserCacheEvictionChannel {
+    /**
+     * Broadcasts that the cached details of a user are stale.
+     *
+     * @param login the login of the user, as it was before the change.
+     */
+    void publish(String login);
+
+    /**
+     * Broadcasts that the cached details of a user are stale once the current transaction is committed, so that they
+     * cannot be reloaded from the database before the change is visible. Without a transaction, the eviction is
+     * broadcast immediately.
+     *
+     * @param login the login of the user, as it was before the change.
+     */
+    default void publishAfterCommit(String login) {
+        TransactionUtils.afterCommit(() -> publish(login));
+    }
+
+    /**
+     * Registers a listener called with the login of every evicted user.
+     *
+     * @param listener the listener to register.
+     */
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,134 @@
+package net.archiscape.app.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.archiscape.app.config.ApplicationProperties;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the security details of activated users, keyed by the lowercase login or email used to
+ * authenticate.
+ * <p>
+ * Entries are immutable snapshots: a new {@link User} is built on every hit, as Spring Security erases the
+ * credentials of the {@link UserDetails} it is given once the authentication is done. Entries expire after a
+ * configurable time to live, and are evicted through the {@link UserCacheEvictionChannel} whenever a user is modified.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every eviction, so that details read from the database before an eviction are not cached after it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final boolean enabled;
+
+    private final int maxSize;
+
+    private final long timeToLiveInMillis;
+
+    public UserDetailsCache(ApplicationProperties applicationProperties, UserCacheEvictionChannel userCacheEvictionChannel) {
+        ApplicationProperties.Security.UserDetailsCache properties = applicationProperties.getSecurity().getUserDetailsCache();
+        this.enabled = properties.isEnabled();
+        this.maxSize = properties.getMaxSize();
+        this.timeToLiveInMillis = 1000 * properties.getTimeToLiveInSeconds();
+        userCacheEvictionChannel.subscribe(this::evict);
+    }
+
+    /**
+     * Returns the current generation, to be read before loading the details that will be given to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Returns a fresh copy of the cached details, or {@code null} if none are cached for this key.
+     *
+     * @param key the lowercase login or email.
+     * @return the cached details, or {@code null}.
+     */
+    public UserDetails get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return new User(entry.login, entry.password, entry.authorities);
+    }
+
+    public void put(String key, UserDetails userDetails, long loadGeneration) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        Entry entry = new Entry(
+            userDetails.getUsername(),
+            userDetails.getPassword(),
+            userDetails.getAuthorities(),
+            now + timeToLiveInMillis
+        );
+        entries.put(key, entry);
+        if (generation.get() != loadGeneration) {
+            // the user may have been modified while being loaded
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Evicts all the entries of a user, whichever key they were cached with.
+     *
+     * @param login the login of the user.
+     */
+    public void evict(String login) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> entry.login.equals(login));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+
+        private final String login;
+
+        private final String password;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final long expiresAt;
+
+        private Entry(String login, String password, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+            this.login = login;
+            this.password = password;
+            this.authorities = List.copyOf(authorities);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
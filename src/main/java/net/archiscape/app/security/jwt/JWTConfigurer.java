@@ -1,5 +1,6 @@
 package net.archiscape.app.security.jwt;
 
+import net.archiscape.app.security.UserActivityTracker;
 import org.springframework.security.config.annotation.SecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.DefaultSecurityFilterChain;
@@ -9,13 +10,16 @@ public class JWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilt
 
     private final TokenProvider tokenProvider;
 
-    public JWTConfigurer(TokenProvider tokenProvider) {
+    private final UserActivityTracker userActivityTracker;
+
+    public JWTConfigurer(TokenProvider tokenProvider, UserActivityTracker userActivityTracker) {
         this.tokenProvider = tokenProvider;
+        this.userActivityTracker = userActivityTracker;
     }
 
     @Override
     public void configure(HttpSecurity http) {
-        JWTFilter customFilter = new JWTFilter(tokenProvider);
+        JWTFilter customFilter = new JWTFilter(tokenProvider, userActivityTracker);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
     }
 }
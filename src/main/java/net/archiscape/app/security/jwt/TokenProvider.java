@@ -8,13 +8,15 @@ import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
 import java.util.stream.Collectors;
+import net.archiscape.app.config.ApplicationProperties;
 import net.archiscape.app.management.SecurityMetersService;
+import net.archiscape.app.security.AuthorityRegistry;
+import net.archiscape.app.security.TokenRevocationList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
@@ -27,8 +29,12 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final String COMPACT_AUTHORITIES_KEY = "authz";
+
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
+    private static final String UNKNOWN_COMPACT_AUTHORITIES = "JWT compact authorities do not match the known authorities.";
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -39,7 +45,21 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final boolean compactAuthorities;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService,
+        AuthorityRegistry authorityRegistry,
+        TokenRevocationList tokenRevocationList
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -60,47 +80,151 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+
+        ApplicationProperties.Security.TokenCache tokenCacheProperties = applicationProperties.getSecurity().getTokenCache();
+        this.verifiedTokenCache = tokenCacheProperties.isEnabled() ? new VerifiedTokenCache(tokenCacheProperties.getMaxSize()) : null;
+
+        this.authorityRegistry = authorityRegistry;
+        this.compactAuthorities = applicationProperties.getSecurity().getAuthorityClaim().isCompact();
+
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
-        String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
+        return createToken(authentication, rememberMe ? this.tokenValidityInMillisecondsForRememberMe : this.tokenValidityInMilliseconds);
+    }
+
+    /**
+     * Creates a token valid for a given time, such as the short-lived access tokens renewed with a refresh token.
+     *
+     * @param authentication the authentication to hold in the token.
+     * @param validityInMilliseconds the validity of the token.
+     * @return the signed token.
+     */
+    public String createToken(Authentication authentication, long validityInMilliseconds) {
+        String compact = compactAuthorities ? authorityRegistry.encode(authentication.getAuthorities()) : null;
 
         long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
+        Date validity = new Date(now + validityInMilliseconds);
+
+        JwtBuilder builder = Jwts.builder().setSubject(authentication.getName()).setIssuedAt(new Date(now));
+        if (compact != null) {
+            builder.claim(COMPACT_AUTHORITIES_KEY, compact);
         } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
+            String authorities = authentication
+                .getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+            builder.claim(AUTHORITIES_KEY, authorities);
         }
-
-        return Jwts
-            .builder()
-            .setSubject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .compact();
+        return builder.signWith(key, SignatureAlgorithm.HS512).setExpiration(validity).compact();
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Authentication authentication = buildAuthentication(jwtParser.parseClaimsJws(token).getBody(), token);
+        if (authentication == null) {
+            throw new UnsupportedJwtException(UNKNOWN_COMPACT_AUTHORITIES);
+        }
+        return authentication;
+    }
+
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token and builds its {@link Authentication} in a single parse.
+     * <p>
+     * Verified tokens are remembered until their expiration, so a bearer token presented again is neither parsed nor
+     * HMAC-verified a second time. Whether the token has been revoked is checked on every call, against the in-memory
+     * {@link TokenRevocationList}.
+     *
+     * @param token the JWT to verify.
+     * @return the authentication held by the token, or an empty {@link Optional} if the token is not valid.
+     */
+    public Optional<Authentication> getVerifiedAuthentication(String token) {
+        if (verifiedTokenCache == null) {
+            Claims claims = parseClaims(token);
+            if (claims == null || isRevoked(claims.getSubject(), issuedAtInSeconds(claims))) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(buildAuthentication(claims, token));
+        }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache.Entry entry = verifiedTokenCache.get(token, now);
+        if (entry != null) {
+            Authentication authentication = entry.getAuthentication();
+            if (isRevoked(authentication.getName(), entry.getIssuedAtInSeconds())) {
+                return Optional.empty();
+            }
+            return Optional.of(authentication);
+        }
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        long issuedAtInSeconds = issuedAtInSeconds(claims);
+        if (isRevoked(claims.getSubject(), issuedAtInSeconds)) {
+            return Optional.empty();
+        }
+        Authentication authentication = buildAuthentication(claims, token);
+        if (authentication == null) {
+            return Optional.empty();
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokenCache.put(token, authentication, issuedAtInSeconds, expiration.getTime(), now);
+        }
+        return Optional.of(authentication);
+    }
+
+    private boolean isRevoked(String login, long issuedAtInSeconds) {
+        if (tokenRevocationList.isRevoked(login, issuedAtInSeconds)) {
+            this.securityMetersService.trackTokenRevoked();
+            log.trace("Revoked JWT token of User: {}", login);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the issue time of the token, or {@code 0} for the tokens issued before it was set.
+     */
+    private static long issuedAtInSeconds(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? 0 : issuedAt.getTime() / 1000;
+    }
+
+    /**
+     * Builds the authentication of verified claims, interning their authorities.
+     *
+     * @return the authentication, or {@code null} if the claims hold compact authorities which can't be decoded.
+     */
+    private Authentication buildAuthentication(Claims claims, String token) {
+        List<GrantedAuthority> authorities;
+        Object compact = claims.get(COMPACT_AUTHORITIES_KEY);
+        if (compact != null) {
+            authorities = authorityRegistry.decode(compact.toString());
+            if (authorities == null) {
+                // issued against another set of authorities, the token must be renewed
+                this.securityMetersService.trackTokenUnsupported();
+                log.trace(UNKNOWN_COMPACT_AUTHORITIES);
+                return null;
+            }
+        } else {
+            authorities = authorityRegistry.fromNames(claims.get(AUTHORITIES_KEY).toString());
+        }
 
         User principal = new User(claims.getSubject(), "", authorities);
 
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
-    public boolean validateToken(String authToken) {
+    private Claims parseClaims(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +245,6 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
 }
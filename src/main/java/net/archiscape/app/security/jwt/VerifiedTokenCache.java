@@ -0,0 +1,126 @@
+package net.archiscape.app.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Size-bounded cache of the {@link Authentication} built from already verified JWTs.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token and carry the token's {@code iat} and {@code exp} claims: an entry is never
+ * returned once the token has expired. The entries are held by a Caffeine cache, which expires each of them with its
+ * token and evicts the least frequently used ones beyond the maximum size, in amortized constant time, so memory stays
+ * bounded under a flood of distinct tokens.
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Cache<ByteBuffer, Entry> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        this.entries =
+            Caffeine
+                .newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry())
+                // the maintenance runs on the calling threads, not on the common pool
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Returns the cache entry of the token, or {@code null} if it is unknown or has expired.
+     */
+    Entry get(String token, long nowInMillis) {
+        ByteBuffer key = digest(token);
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= nowInMillis) {
+            entries.asMap().remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    void put(String token, Authentication authentication, long issuedAtInSeconds, long expiresAt, long nowInMillis) {
+        if (expiresAt <= nowInMillis) {
+            return;
+        }
+        entries.put(digest(token), new Entry(authentication, issuedAtInSeconds, expiresAt, expiresAt - nowInMillis));
+    }
+
+    void clear() {
+        entries.invalidateAll();
+    }
+
+    int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static final class Entry {
+
+        private final Authentication authentication;
+
+        private final long issuedAtInSeconds;
+
+        private final long expiresAt;
+
+        private final long timeToLiveInMillis;
+
+        private Entry(Authentication authentication, long issuedAtInSeconds, long expiresAt, long timeToLiveInMillis) {
+            this.authentication = authentication;
+            this.issuedAtInSeconds = issuedAtInSeconds;
+            this.expiresAt = expiresAt;
+            this.timeToLiveInMillis = timeToLiveInMillis;
+        }
+
+        Authentication getAuthentication() {
+            return authentication;
+        }
+
+        long getIssuedAtInSeconds() {
+            return issuedAtInSeconds;
+        }
+    }
+
+    /**
+     * Expires each entry with its token, from the time it is cached.
+     */
+    private static final class EntryExpiry implements Expiry<ByteBuffer, Entry> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Entry entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(entry.timeToLiveInMillis);
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return TimeUnit.MILLISECONDS.toNanos(entry.timeToLiveInMillis);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package net.archiscape.app.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import net.archiscape.app.repository.AuditEventConverter;
+import net.archiscape.app.repository.CustomAuditEventRepository;
+import net.archiscape.app.repository.PersistenceAuditEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for managing audit events.
+ * <p>
+ * The buffered events are written in the background by batches, each batch in its own short transaction, so that the
+ * requests raising them don't wait for their rows.
+ */
+@Service
+public class AuditEventService {
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventService.class);
+
+    private final CustomAuditEventRepository customAuditEventRepository;
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public AuditEventService(
+        CustomAuditEventRepository customAuditEventRepository,
+        PersistenceAuditEventRepository persistenceAuditEventRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.customAuditEventRepository = customAuditEventRepository;
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getAuditEvents().getBatchSize();
+    }
+
+    /**
+     * Writes the buffered events, until the buffer is empty.
+     * <p>
+     * A batch which can't be written is lost, so that a database outage doesn't hold the events raised meanwhile. The
+     * events left are written on shutdown.
+     */
+    @Scheduled(
+        initialDelayString = "${application.audit-events.flush-interval-in-millis:1000}",
+        fixedDelayString = "${application.audit-events.flush-interval-in-millis:1000}"
+    )
+    @PreDestroy
+    public synchronized void flush() {
+        int written = 0;
+        List<PersistentAuditEvent> batch = new ArrayList<>(batchSize);
+        while (customAuditEventRepository.drainTo(batch, batchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> persistenceAuditEventRepository.insertAll(batch));
+                written += batch.size();
+            } catch (DataAccessException e) {
+                log.error("Lost {} audit events, which could not be written", batch.size(), e);
+            }
+            batch.clear();
+        }
+        if (written > 0) {
+            log.debug("Wrote {} audit events", written);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AuditEvent> findAll(Pageable pageable) {
+        return persistenceAuditEventRepository.findAll(pageable).map(AuditEventConverter::convertToAuditEvent);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AuditEvent> findByDates(Instant fromDate, Instant toDate, Pageable pageable) {
+        return persistenceAuditEventRepository
+            .findAllByAuditEventDateBetween(fromDate, toDate, pageable)
+            .map(AuditEventConverter::convertToAuditEvent);
+    }
+}
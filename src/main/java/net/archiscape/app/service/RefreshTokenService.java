@@ -0,0 +1,192 @@
+package net.archiscape.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.RefreshToken;
+import net.archiscape.app.repository.RefreshTokenRepository;
+import net.archiscape.app.security.TokenRevocationList;
+import net.archiscape.app.security.jwt.TokenProvider;
+import net.archiscape.app.service.dto.TokenPairDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class issuing short-lived access JWTs along with opaque refresh tokens.
+ * <p>
+ * A refresh loads the current authorities of the user, but never verifies a password: users stay logged in while
+ * access tokens are short, without paying the password hashing cost on every renewal. Refresh tokens are rotated on
+ * every use, and only their SHA-256 hash is stored.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final TokenProvider tokenProvider;
+
+    private final UserDetailsService userDetailsService;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final long accessTokenValidityInSeconds;
+
+    private final long refreshTokenValidityInSeconds;
+
+    private final long refreshTokenValidityInSecondsForRememberMe;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        TokenProvider tokenProvider,
+        UserDetailsService userDetailsService,
+        TokenRevocationList tokenRevocationList,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
+        ApplicationProperties.Security.RefreshToken properties = applicationProperties.getSecurity().getRefreshToken();
+        this.accessTokenValidityInSeconds = properties.getAccessTokenValidityInSeconds();
+        this.refreshTokenValidityInSeconds = properties.getTokenValidityInSeconds();
+        this.refreshTokenValidityInSecondsForRememberMe = properties.getTokenValidityInSecondsForRememberMe();
+    }
+
+    /**
+     * Issues the tokens of a user who just authenticated, starting a new refresh token family.
+     *
+     * @param authentication the authentication of the user.
+     * @param rememberMe whether the refresh token should have the remember-me validity.
+     * @return the access and refresh tokens.
+     */
+    public TokenPairDTO issue(Authentication authentication, boolean rememberMe) {
+        Instant now = Instant.now();
+        long validityInSeconds = rememberMe ? refreshTokenValidityInSecondsForRememberMe : refreshTokenValidityInSeconds;
+        String refreshToken = createRefreshToken(
+            UUID.randomUUID().toString(),
+            authentication.getName(),
+            rememberMe,
+            now,
+            now.plusSeconds(validityInSeconds)
+        );
+        return new TokenPairDTO(createAccessToken(authentication), refreshToken, accessTokenValidityInSeconds);
+    }
+
+    /**
+     * Rotates a refresh token, issuing a new access token along with the next refresh token of its family.
+     * <p>
+     * A refresh token which was already used is assumed to be stolen: its whole family is revoked, so that neither
+     * the thief nor the user can refresh again. The family keeps the expiration of its first token.
+     *
+     * @param refreshToken the refresh token.
+     * @return the new tokens, or an empty {@link Optional} if the refresh token is unknown, expired or revoked.
+     */
+    public Optional<TokenPairDTO> refresh(String refreshToken) {
+        Instant now = Instant.now();
+        Optional<RefreshToken> found = refreshTokenRepository.findOneByTokenHash(hash(refreshToken));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken current = found.get();
+        if (current.isRevoked() || !current.getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+        if (current.getUsedDate() != null) {
+            log.warn("Reuse of a rotated refresh token of User: {}, revoking its family", current.getLogin());
+            refreshTokenRepository.revokeFamily(current.getFamily());
+            return Optional.empty();
+        }
+        if (tokenRevocationList.isRevoked(current.getLogin(), current.getCreatedDate().getEpochSecond())) {
+            refreshTokenRepository.revokeFamily(current.getFamily());
+            return Optional.empty();
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(current.getLogin());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        current.setUsedDate(now);
+        String nextRefreshToken = createRefreshToken(
+            current.getFamily(),
+            current.getLogin(),
+            current.isRememberMe(),
+            now,
+            current.getExpiresAt()
+        );
+        return Optional.of(new TokenPairDTO(createAccessToken(authentication), nextRefreshToken, accessTokenValidityInSeconds));
+    }
+
+    /**
+     * Revokes the family of a refresh token, when the user logs out.
+     *
+     * @param refreshToken the refresh token.
+     */
+    public void revoke(String refreshToken) {
+        refreshTokenRepository
+            .findOneByTokenHash(hash(refreshToken))
+            .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamily()));
+    }
+
+    /**
+     * Expired refresh tokens can't be used anymore, and should be regularly deleted.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:00 (am).
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void removeExpiredRefreshTokens() {
+        int deleted = refreshTokenRepository.deleteAllByExpiresAtBefore(Instant.now());
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private String createAccessToken(Authentication authentication) {
+        return tokenProvider.createToken(authentication, 1000 * accessTokenValidityInSeconds);
+    }
+
+    private String createRefreshToken(String family, String login, boolean rememberMe, Instant now, Instant expiresAt) {
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(refreshToken));
+        token.setFamily(family);
+        token.setLogin(login);
+        token.setRememberMe(rememberMe);
+        token.setCreatedDate(now);
+        token.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(token);
+        return refreshToken;
+    }
+
+    private static String hash(String refreshToken) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        StringBuilder hex = new StringBuilder(2 * digest.length);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
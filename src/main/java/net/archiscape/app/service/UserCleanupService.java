@@ -0,0 +1,147 @@
+package net.archiscape.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.repository.SchedulerLockRepository;
+import net.archiscape.app.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class for removing the users who never activated their account.
+ * <p>
+ * The users are deleted by chunks, each chunk in its own short transaction, so that a wave of spam registrations doesn't
+ * lock the user table for minutes. The job runs on a single node at a time, guarded by a row of {@code scheduler_lock}.
+ */
+@Service
+public class UserCleanupService {
+
+    public static final String LOCK_NAME = "remove-not-activated-users";
+
+    public static final String DELETED_USERS_METER_NAME = "users.cleanup.deleted";
+    public static final String DELETED_USERS_METER_DESCRIPTION = "Indicates the count of the not activated users deleted.";
+    public static final String DELETED_USERS_METER_BASE_UNIT = "users";
+
+    public static final String DURATION_METER_NAME = "users.cleanup.duration";
+    public static final String DURATION_METER_DESCRIPTION = "Indicates the duration of the removals of not activated users.";
+    public static final String DURATION_METER_OUTCOME_DIMENSION = "outcome";
+
+    private final Logger log = LoggerFactory.getLogger(UserCleanupService.class);
+
+    private final UserRepository userRepository;
+
+    private final SchedulerLockRepository schedulerLockRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.UserCleanup userCleanup;
+
+    private final String nodeName = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final Counter deletedUsersCounter;
+
+    private final Timer completedTimer;
+
+    private final Timer interruptedTimer;
+
+    private final Timer failedTimer;
+
+    private final Timer skippedTimer;
+
+    public UserCleanupService(
+        UserRepository userRepository,
+        SchedulerLockRepository schedulerLockRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userCleanup = applicationProperties.getUserCleanup();
+        this.deletedUsersCounter = Counter
+            .builder(DELETED_USERS_METER_NAME)
+            .baseUnit(DELETED_USERS_METER_BASE_UNIT)
+            .description(DELETED_USERS_METER_DESCRIPTION)
+            .register(meterRegistry);
+        this.completedTimer = durationTimerForOutcome("completed").register(meterRegistry);
+        this.interruptedTimer = durationTimerForOutcome("interrupted").register(meterRegistry);
+        this.failedTimer = durationTimerForOutcome("failed").register(meterRegistry);
+        this.skippedTimer = durationTimerForOutcome("skipped").register(meterRegistry);
+    }
+
+    private Timer.Builder durationTimerForOutcome(String outcome) {
+        return Timer.builder(DURATION_METER_NAME).description(DURATION_METER_DESCRIPTION).tag(DURATION_METER_OUTCOME_DIMENSION, outcome);
+    }
+
+    /**
+     * Not activated users should be automatically deleted after 3 days.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:00 (am), and is skipped by the nodes which don't get the lock.
+     */
+    @Scheduled(cron = "0 0 1 * * ?")
+    public void removeNotActivatedUsers() {
+        long startNanos = System.nanoTime();
+        Instant start = Instant.now();
+        Instant lockUntil = start.plusSeconds(userCleanup.getLockAtMostForInSeconds());
+        Boolean locked = transactionTemplate.execute(status -> schedulerLockRepository.tryLock(LOCK_NAME, start, lockUntil, nodeName));
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Not activated users are being removed by another node");
+            skippedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        Timer timer = failedTimer;
+        long deleted = 0;
+        try {
+            Instant createdBefore = start.minus(3, ChronoUnit.DAYS);
+            int chunkDeleted;
+            do {
+                if (Instant.now().isAfter(lockUntil)) {
+                    // another node may hold the lock by now
+                    log.warn("Stopped removing not activated users after {} deletions, as the lock has expired", deleted);
+                    timer = interruptedTimer;
+                    return;
+                }
+                chunkDeleted = transactionTemplate.execute(status -> removeChunk(createdBefore));
+                deleted += chunkDeleted;
+                deletedUsersCounter.increment(chunkDeleted);
+                // a shorter chunk is the last one, unless users were activated meanwhile: they are left for the next run
+            } while (chunkDeleted == userCleanup.getChunkSize());
+            timer = completedTimer;
+            log.debug("Deleted {} not activated users", deleted);
+        } finally {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            Instant minLockUntil = start.plusSeconds(userCleanup.getLockAtLeastForInSeconds());
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(status ->
+                schedulerLockRepository.unlock(LOCK_NAME, now.isAfter(minLockUntil) ? now : minLockUntil, nodeName)
+            );
+        }
+    }
+
+    /**
+     * Deletes a chunk of not activated users.
+     *
+     * @return the number of deleted users.
+     */
+    private int removeChunk(Instant createdBefore) {
+        List<Long> ids = userRepository.findAllIdsByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
+            createdBefore,
+            PageRequest.ofSize(userCleanup.getChunkSize())
+        );
+        // users activated since they were selected are not deleted
+        return ids.isEmpty() ? 0 : userRepository.deleteAllByIdInAndActivatedIsFalse(ids);
+    }
+}
@@ -0,0 +1,446 @@
+package net.archiscape.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.config.Constants;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.security.AuthorityRegistry;
+import net.archiscape.app.security.SecurityUtils;
+import net.archiscape.app.service.dto.AdminUserDTO;
+import net.archiscape.app.service.dto.UserImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Service for importing users in bulk, from CSV or NDJSON files, optionally gzipped.
+ * <p>
+ * The rows are read one at a time and validated against the authorities held in memory, then inserted with JDBC
+ * batches, each batch in its own transaction: besides the logins and emails already read, an import holds a single
+ * batch in memory, and a failure only loses the current batch. No mail is sent: the imported users are activated with
+ * an unknown random password and no reset key, and set their password by requesting a reset through
+ * {@code /api/account/reset-password/init}.
+ */
+@Service
+public class UserImportService {
+
+    /**
+     * The formats of the imported files.
+     */
+    public enum Format {
+        /**
+         * A header record naming the columns, then one record per user. Unknown columns, such as those of the export,
+         * are ignored, and the authorities are separated by commas.
+         */
+        CSV,
+        /**
+         * One {@link AdminUserDTO} JSON document per line.
+         */
+        NDJSON,
+    }
+
+    private final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserRepository userRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.UserImport userImport;
+
+    public UserImportService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRegistry authorityRegistry,
+        Validator validator,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.authorityRegistry = authorityRegistry;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userImport = applicationProperties.getUserImport();
+    }
+
+    /**
+     * Imports users, skipping the invalid rows.
+     *
+     * @param input the imported file, gzipped or not.
+     * @param format the format of the file.
+     * @return the number of imported users, and the errors of the rejected rows.
+     * @throws IOException if the file could not be read.
+     */
+    public UserImportResultDTO importUsers(InputStream input, Format format) throws IOException {
+        UserImportResultDTO result = new UserImportResultDTO(userImport.getMaxReportedErrors());
+        ImportContext context = new ImportContext();
+        Reader source = open(input);
+        try (RowReader reader = format == Format.CSV ? new CsvRowReader(source) : new NdjsonRowReader(source, objectMapper)) {
+            for (Row row = reader.next(); row != null; row = reader.next()) {
+                if (row.error == null) {
+                    row.error = context.validate(row.user);
+                }
+                if (row.error != null) {
+                    result.reject(row.line, row.user != null ? row.user.getLogin() : null, row.error);
+                } else {
+                    context.batch.add(row);
+                    if (context.batch.size() >= userImport.getBatchSize()) {
+                        insert(context, result);
+                    }
+                }
+            }
+        }
+        insert(context, result);
+        log.info("Imported {} users, rejected {} rows", result.getImported(), result.getRejected());
+        return result;
+    }
+
+    /**
+     * Inserts the rows of a batch which don't conflict with existing users, in their own transaction.
+     */
+    private void insert(ImportContext context, UserImportResultDTO result) {
+        if (context.batch.isEmpty()) {
+            return;
+        }
+        try {
+            int inserted = transactionTemplate.execute(status -> {
+                Set<String> existingLogins = userRepository.findAllLoginsByLoginIn(
+                    context.batch.stream().map(row -> row.user.getLogin()).collect(Collectors.toList())
+                );
+                List<String> emails = context.batch
+                    .stream()
+                    .map(row -> row.user.getEmail())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+                Set<String> existingEmails = emails.isEmpty()
+                    ? Collections.emptySet()
+                    : userRepository.findAllNormalizedEmailsByNormalizedEmailIn(emails);
+                List<User> users = new ArrayList<>(context.batch.size());
+                for (Row row : context.batch) {
+                    if (existingLogins.contains(row.user.getLogin())) {
+                        row.error = "Login name already used";
+                    } else if (row.user.getEmail() != null && existingEmails.contains(row.user.getEmail())) {
+                        row.error = "Email is already in use";
+                    } else {
+                        users.add(context.toUser(row.user));
+                    }
+                }
+                userRepository.insertAll(users);
+                return users.size();
+            });
+            result.addImported(inserted);
+            for (Row row : context.batch) {
+                if (row.error != null) {
+                    result.reject(row.line, row.user.getLogin(), row.error);
+                }
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Could not import a batch of {} users: {}", context.batch.size(), e.getMessage());
+            for (Row row : context.batch) {
+                result.reject(row.line, row.user.getLogin(), row.error != null ? row.error : "Conflicts with a concurrent change");
+            }
+        }
+        context.batch.clear();
+    }
+
+    /**
+     * Decompresses the input if it starts with the gzip magic number.
+     */
+    private static Reader open(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        InputStream decoded = magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(buffered) : buffered;
+        return new BufferedReader(new InputStreamReader(decoded, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The state of an import: the rows of the current batch, and what is shared by all the batches.
+     */
+    private class ImportContext {
+
+        private final List<Row> batch = new ArrayList<>();
+
+        private final Set<String> authorityNames = new HashSet<>(authorityRegistry.getNames());
+
+        private final Set<String> logins = new HashSet<>();
+
+        private final Set<String> emails = new HashSet<>();
+
+        // the password is random and discarded: a single hash serves all the users
+        private final String passwordHash = passwordEncoder.encode(RandomUtil.generatePassword());
+
+        private final String createdBy = SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM);
+
+        /**
+         * Validates a user, and normalizes its login and email.
+         *
+         * @return the error, or {@code null} if the user is valid.
+         */
+        private String validate(AdminUserDTO user) {
+            Set<ConstraintViolation<AdminUserDTO>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                return violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            }
+            user.setLogin(user.getLogin().toLowerCase());
+            if (user.getEmail() != null) {
+                user.setEmail(User.normalizeEmail(user.getEmail()));
+            }
+            if (logins.contains(user.getLogin())) {
+                return "Login name already imported";
+            }
+            if (user.getEmail() != null && emails.contains(user.getEmail())) {
+                return "Email already imported";
+            }
+            if (user.getAuthorities() != null) {
+                for (String authority : user.getAuthorities()) {
+                    if (!authorityNames.contains(authority)) {
+                        return "Unknown authority " + authority;
+                    }
+                }
+            }
+            logins.add(user.getLogin());
+            if (user.getEmail() != null) {
+                emails.add(user.getEmail());
+            }
+            return null;
+        }
+
+        private User toUser(AdminUserDTO userDTO) {
+            Instant now = Instant.now();
+            User user = new User();
+            user.setLogin(userDTO.getLogin());
+            user.setFirstName(userDTO.getFirstName());
+            user.setLastName(userDTO.getLastName());
+            user.setEmail(userDTO.getEmail());
+            user.setImageUrl(userDTO.getImageUrl());
+            user.setLangKey(userDTO.getLangKey() == null ? Constants.DEFAULT_LANGUAGE : userDTO.getLangKey());
+            user.setPassword(passwordHash);
+            user.setActivated(true);
+            user.setCreatedBy(createdBy);
+            user.setCreatedDate(now);
+            user.setLastModifiedBy(createdBy);
+            user.setLastModifiedDate(now);
+            if (userDTO.getAuthorities() != null) {
+                for (String name : userDTO.getAuthorities()) {
+                    Authority authority = new Authority();
+                    authority.setName(name);
+                    user.getAuthorities().add(authority);
+                }
+            }
+            return user;
+        }
+    }
+
+    /**
+     * A row of the imported file, either parsed or rejected.
+     */
+    private static final class Row {
+
+        private final long line;
+
+        private final AdminUserDTO user;
+
+        private String error;
+
+        private Row(long line, AdminUserDTO user, String error) {
+            this.line = line;
+            this.user = user;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader extends Closeable {
+        /**
+         * @return the next row, or {@code null} at the end of the file.
+         */
+        Row next() throws IOException;
+    }
+
+    private static final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+
+        private final ObjectMapper objectMapper;
+
+        private long line;
+
+        private NdjsonRowReader(Reader reader, ObjectMapper objectMapper) {
+            this.reader = new BufferedReader(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                AdminUserDTO user = objectMapper.readValue(text, AdminUserDTO.class);
+                return user != null ? new Row(line, user, null) : new Row(line, null, "Malformed JSON: not an object");
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reader of RFC 4180 records, whose quoted fields may span several lines.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final PushbackReader reader;
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private long line = 1;
+
+        private String headerError;
+
+        private CsvRowReader(Reader reader) throws IOException {
+            this.reader = new PushbackReader(reader);
+            List<String> header = readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    // a byte order mark may precede the header
+                    columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+                }
+            }
+            if (!columns.containsKey("login")) {
+                headerError = "The header has no login column";
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (headerError != null) {
+                Row row = new Row(1, null, headerError);
+                headerError = null;
+                columns.clear();
+                return row;
+            }
+            if (columns.isEmpty()) {
+                return null;
+            }
+            List<String> fields;
+            long recordLine;
+            do {
+                recordLine = line;
+                fields = readRecord();
+            } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+            if (fields == null) {
+                return null;
+            }
+            AdminUserDTO user = new AdminUserDTO();
+            user.setLogin(get(fields, "login"));
+            user.setEmail(get(fields, "email"));
+            user.setFirstName(get(fields, "firstName"));
+            user.setLastName(get(fields, "lastName"));
+            user.setImageUrl(get(fields, "imageUrl"));
+            user.setLangKey(get(fields, "langKey"));
+            String authorities = get(fields, "authorities");
+            if (authorities != null) {
+                user.setAuthorities(
+                    Arrays.stream(authorities.split(",")).map(String::trim).filter(name -> !name.isEmpty()).collect(Collectors.toSet())
+                );
+            }
+            return new Row(recordLine, user, null);
+        }
+
+        private String get(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            for (; c != -1; c = reader.read()) {
+                if (quoted) {
+                    if (c == '"') {
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.unread(next);
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package net.archiscape.app.service;
+
+public class UserModifiedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UserModifiedException() {
+        super("User was modified since it was read!");
+    }
+}
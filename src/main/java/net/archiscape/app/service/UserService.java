@@ -3,23 +3,40 @@ package net.archiscape.app.service;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import net.archiscape.app.config.Constants;
 import net.archiscape.app.domain.Authority;
 import net.archiscape.app.domain.User;
-import net.archiscape.app.repository.AuthorityRepository;
+import net.archiscape.app.domain.User_;
+import net.archiscape.app.repository.Keyset;
+import net.archiscape.app.repository.KeysetPage;
 import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.repository.projection.ManagedUserAuthorityView;
+import net.archiscape.app.repository.projection.ManagedUserView;
+import net.archiscape.app.repository.projection.PublicUserView;
+import net.archiscape.app.repository.projection.UserAuthorityView;
+import net.archiscape.app.repository.projection.UserConflictView;
 import net.archiscape.app.security.AuthoritiesConstants;
+import net.archiscape.app.security.AuthorityRegistry;
 import net.archiscape.app.security.SecurityUtils;
+import net.archiscape.app.security.TokenRevocationList;
+import net.archiscape.app.security.UserCacheEvictionChannel;
 import net.archiscape.app.service.dto.AdminUserDTO;
 import net.archiscape.app.service.dto.UserDTO;
+import net.archiscape.app.util.TransactionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -30,18 +47,37 @@ import tech.jhipster.security.RandomUtil;
 @Transactional
 public class UserService {
 
+    public static final String AUTHORITIES_CHANGED_EVENT_TYPE = "AUTHORITIES_CHANGED";
+    public static final String USER_DELETED_EVENT_TYPE = "USER_DELETED";
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
+
+    private final UserCacheEvictionChannel userCacheEvictionChannel;
+
+    private final TokenRevocationList tokenRevocationList;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRegistry authorityRegistry,
+        UserCacheEvictionChannel userCacheEvictionChannel,
+        TokenRevocationList tokenRevocationList,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.userCacheEvictionChannel = userCacheEvictionChannel;
+        this.tokenRevocationList = tokenRevocationList;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -50,6 +86,7 @@ public class UserService {
             .findOneByActivationKey(key)
             .map(user -> {
                 // activate given user for the registration key.
+                evictCachedUserDetails(user.getLogin());
                 user.setActivated(true);
                 user.setActivationKey(null);
                 log.debug("Activated user: {}", user);
@@ -63,6 +100,8 @@ public class UserService {
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
             .map(user -> {
+                evictCachedUserDetails(user.getLogin());
+                tokenRevocationList.revoke(user.getLogin());
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
@@ -82,22 +121,7 @@ public class UserService {
     }
 
     public User registerUser(AdminUserDTO userDTO, String password) {
-        userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new UsernameAlreadyUsedException();
-                }
-            });
-        userRepository
-            .findOneByEmailIgnoreCase(userDTO.getEmail())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new EmailAlreadyUsedException();
-                }
-            });
+        checkConflicts(null, userDTO.getLogin().toLowerCase(), userDTO.getEmail(), true);
         User newUser = new User();
         String encryptedPassword = passwordEncoder.encode(password);
         newUser.setLogin(userDTO.getLogin().toLowerCase());
@@ -115,23 +139,74 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        authorityRegistry.findAuthority(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
-        userRepository.save(newUser);
+        saveAndFlush(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
 
-    private boolean removeNonActivatedUser(User existingUser) {
+    /**
+     * Checks with a single query that the login and the email are not used by another user.
+     * <p>
+     * This only spares the insert or update of most conflicts: the unique constraints remain the authoritative check,
+     * as a concurrent transaction may take the login or the email after this query, see {@link #saveAndFlush(User)}.
+     *
+     * @param id the id of the updated user, or {@code null} for a new user.
+     * @param login the lowercase login.
+     * @param email the email, or {@code null}.
+     * @param removeNonActivated whether the not activated users holding the login or the email are deleted instead.
+     */
+    private void checkConflicts(Long id, String login, String email, boolean removeNonActivated) {
+        UserConflictView loginConflict = null;
+        UserConflictView emailConflict = null;
+        for (UserConflictView conflict : userRepository.findAllConflictsByLoginOrNormalizedEmail(login, User.normalizeEmail(email))) {
+            if (conflict.getId().equals(id)) {
+                continue;
+            }
+            if (conflict.getLogin().equals(login)) {
+                loginConflict = conflict;
+            } else {
+                emailConflict = conflict;
+            }
+        }
+        if (loginConflict != null && !(removeNonActivated && removeNonActivatedUser(loginConflict))) {
+            throw new UsernameAlreadyUsedException();
+        }
+        if (emailConflict != null && !(removeNonActivated && removeNonActivatedUser(emailConflict))) {
+            throw new EmailAlreadyUsedException();
+        }
+    }
+
+    private boolean removeNonActivatedUser(UserConflictView existingUser) {
         if (existingUser.isActivated()) {
             return false;
         }
-        userRepository.delete(existingUser);
+        userRepository.deleteById(existingUser.getId());
         userRepository.flush();
         return true;
     }
 
+    /**
+     * Saves a user, and flushes it so that a violation of the unique constraints on the login or the email is reported
+     * as such, instead of failing the commit.
+     */
+    private void saveAndFlush(User user) {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ENGLISH);
+            if (message.contains("ux_user_login")) {
+                throw new UsernameAlreadyUsedException();
+            } else if (message.contains("ux_user_email")) {
+                throw new EmailAlreadyUsedException();
+            }
+            throw e;
+        }
+    }
+
     public User createUser(AdminUserDTO userDTO) {
+        checkConflicts(null, userDTO.getLogin().toLowerCase(), userDTO.getEmail(), false);
         User user = new User();
         user.setLogin(userDTO.getLogin().toLowerCase());
         user.setFirstName(userDTO.getFirstName());
@@ -154,13 +229,16 @@ public class UserService {
             Set<Authority> authorities = userDTO
                 .getAuthorities()
                 .stream()
-                .map(authorityRepository::findById)
+                .map(authorityRegistry::findAuthority)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.toSet());
             user.setAuthorities(authorities);
         }
-        userRepository.save(user);
+        saveAndFlush(user);
+        if (!user.getAuthorities().isEmpty()) {
+            auditAuthoritiesChanged(user.getLogin(), Collections.emptySet(), user.getAuthorities());
+        }
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -172,11 +250,35 @@ public class UserService {
      * @return updated user.
      */
     public Optional<AdminUserDTO> updateUser(AdminUserDTO userDTO) {
+        return updateUser(userDTO, null);
+    }
+
+    /**
+     * Update all information for a specific user, unless it was modified since it was read, and return the modified user.
+     *
+     * @param userDTO user to update.
+     * @param expectedVersion the version of the user when it was read, or {@code null} to update any version.
+     * @return updated user.
+     * @throws UserModifiedException if the user doesn't have the expected version anymore.
+     */
+    public Optional<AdminUserDTO> updateUser(AdminUserDTO userDTO, Long expectedVersion) {
+        checkConflicts(userDTO.getId(), userDTO.getLogin().toLowerCase(), userDTO.getEmail(), false);
         return Optional
             .of(userRepository.findById(userDTO.getId()))
             .filter(Optional::isPresent)
             .map(Optional::get)
             .map(user -> {
+                checkVersion(user, expectedVersion);
+                evictCachedUserDetails(user.getLogin());
+                Set<String> authorityNames = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
+                if (
+                    !user.getLogin().equals(userDTO.getLogin().toLowerCase()) ||
+                    (user.isActivated() && !userDTO.isActivated()) ||
+                    !authorityNames.equals(userDTO.getAuthorities())
+                ) {
+                    // the tokens of the user hold its former login, activation or authorities
+                    tokenRevocationList.revoke(user.getLogin());
+                }
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -191,10 +293,15 @@ public class UserService {
                 userDTO
                     .getAuthorities()
                     .stream()
-                    .map(authorityRepository::findById)
+                    .map(authorityRegistry::findAuthority)
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
+                saveAndFlush(user);
+                Set<String> newAuthorityNames = managedAuthorities.stream().map(Authority::getName).collect(Collectors.toSet());
+                if (!authorityNames.equals(newAuthorityNames)) {
+                    auditAuthoritiesChanged(user.getLogin(), authorityNames, managedAuthorities);
+                }
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -205,7 +312,10 @@ public class UserService {
         userRepository
             .findOneByLogin(login)
             .ifPresent(user -> {
+                evictCachedUserDetails(user.getLogin());
+                tokenRevocationList.revoke(user.getLogin());
                 userRepository.delete(user);
+                audit(USER_DELETED_EVENT_TYPE, Map.of("login", user.getLogin()));
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -220,10 +330,36 @@ public class UserService {
      * @param imageUrl  image URL of user.
      */
     public void updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
-        SecurityUtils
+        updateUser(firstName, lastName, email, langKey, imageUrl, null);
+    }
+
+    /**
+     * Update basic information (first name, last name, email, language) for the current user, unless it was modified
+     * since it was read.
+     *
+     * @param firstName first name of user.
+     * @param lastName  last name of user.
+     * @param email     email id of user.
+     * @param langKey   language key.
+     * @param imageUrl  image URL of user.
+     * @param expectedVersion the version of the user when it was read, or {@code null} to update any version.
+     * @return the updated user.
+     * @throws UserModifiedException if the user doesn't have the expected version anymore.
+     */
+    public Optional<User> updateUser(
+        String firstName,
+        String lastName,
+        String email,
+        String langKey,
+        String imageUrl,
+        Long expectedVersion
+    ) {
+        return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .ifPresent(user -> {
+            .map(user -> {
+                checkVersion(user, expectedVersion);
+                evictCachedUserDetails(user.getLogin());
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 if (email != null) {
@@ -231,10 +367,22 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
+                // flushed for the new version
+                saveAndFlush(user);
                 log.debug("Changed Information for User: {}", user);
+                return user;
             });
     }
 
+    /**
+     * Checks the version of a user read by a client, the concurrent modifications being detected on flush.
+     */
+    private static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new UserModifiedException();
+        }
+    }
+
     @Transactional
     public void changePassword(String currentClearTextPassword, String newPassword) {
         SecurityUtils
@@ -246,6 +394,8 @@ public class UserService {
                     throw new InvalidPasswordException();
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
+                evictCachedUserDetails(user.getLogin());
+                tokenRevocationList.revoke(user.getLogin());
                 user.setPassword(encryptedPassword);
                 log.debug("Changed password for User: {}", user);
             });
@@ -253,12 +403,91 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+        Page<ManagedUserView> page = userRepository.findAllManagedUserViews(pageable);
+        Map<Long, Set<String>> authorities = getAuthorityNamesByUserId(
+            page.getContent().stream().map(ManagedUserView::getId).collect(Collectors.toList())
+        );
+        return page.map(user -> new AdminUserDTO(user, authorities.getOrDefault(user.getId(), Collections.emptySet())));
     }
 
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+        return userRepository.findAllPublicUserViews(pageable).map(UserDTO::new);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<AdminUserDTO> getAllManagedUsers(Keyset keyset, int size) {
+        KeysetPage<Long> page = userRepository.findIdsByKeyset(null, keyset, size);
+        if (page.getContent().isEmpty()) {
+            return page.withContent(Collections.emptyList());
+        }
+        Map<Long, ManagedUserView> users = userRepository
+            .findAllManagedUserViewsByIdIn(page.getContent())
+            .stream()
+            .collect(Collectors.toMap(ManagedUserView::getId, Function.identity()));
+        Map<Long, Set<String>> authorities = getAuthorityNamesByUserId(page.getContent());
+        return page.withContent(
+            page
+                .getContent()
+                .stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(user -> new AdminUserDTO(user, authorities.getOrDefault(user.getId(), Collections.emptySet())))
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<UserDTO> getAllPublicUsers(Keyset keyset, int size) {
+        KeysetPage<Long> page = userRepository.findIdsByKeyset((root, query, cb) -> cb.isTrue(root.get(User_.activated)), keyset, size);
+        if (page.getContent().isEmpty()) {
+            return page.withContent(Collections.emptyList());
+        }
+        Map<Long, PublicUserView> users = userRepository
+            .findAllPublicUserViewsByIdIn(page.getContent())
+            .stream()
+            .collect(Collectors.toMap(PublicUserView::getId, Function.identity()));
+        return page.withContent(
+            page.getContent().stream().map(users::get).filter(Objects::nonNull).map(UserDTO::new).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Exports all the users, sorted by id, with constant memory: the users are read from a database cursor and handed
+     * over one by one, as projections which never enter the persistence context.
+     *
+     * @param consumer the consumer of the users, called in the read-only transaction of the export.
+     */
+    @Transactional(readOnly = true)
+    public void exportManagedUsers(Consumer<AdminUserDTO> consumer) {
+        try (Stream<ManagedUserAuthorityView> rows = userRepository.streamAllManagedUserAuthorityViews()) {
+            AdminUserDTO current = null;
+            for (Iterator<ManagedUserAuthorityView> iterator = rows.iterator(); iterator.hasNext();) {
+                ManagedUserAuthorityView row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+                    current = new AdminUserDTO(row, new TreeSet<>());
+                }
+                if (row.getAuthorityName() != null) {
+                    current.getAuthorities().add(row.getAuthorityName());
+                }
+            }
+            if (current != null) {
+                consumer.accept(current);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long countManagedUsers() {
+        return userRepository.count();
+    }
+
+    @Transactional(readOnly = true)
+    public long countPublicUsers() {
+        return userRepository.countByActivatedIsTrue();
     }
 
     @Transactional(readOnly = true)
@@ -272,26 +501,62 @@ public class UserService {
     }
 
     /**
-     * Not activated users should be automatically deleted after 3 days.
-     * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * Evicts the cached security details of a user once the current transaction is committed, so that they cannot be
+     * reloaded from the database before the change is visible.
+     *
+     * @param login the login of the user, before any change.
      */
-    @Scheduled(cron = "0 0 1 * * ?")
-    public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-            });
+    private void evictCachedUserDetails(String login) {
+        userCacheEvictionChannel.publishAfterCommit(login);
+    }
+
+    private void auditAuthoritiesChanged(String login, Set<String> previousAuthorityNames, Set<Authority> authorities) {
+        audit(
+            AUTHORITIES_CHANGED_EVENT_TYPE,
+            Map.of(
+                "login",
+                login,
+                "previousAuthorities",
+                String.join(",", new TreeSet<>(previousAuthorityNames)),
+                "authorities",
+                authorities.stream().map(Authority::getName).sorted().collect(Collectors.joining(","))
+            )
+        );
+    }
+
+    /**
+     * Publishes an audit event of the current user once the current transaction is committed, so that a change rolled
+     * back is not audited.
+     */
+    private void audit(String type, Map<String, Object> data) {
+        String principal = SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM);
+        TransactionUtils.afterCommit(() -> applicationEventPublisher.publishEvent(new AuditApplicationEvent(principal, type, data)));
+    }
+
+    /**
+     * Reads the authority names of users with one query on the join table, instead of loading their collections.
+     */
+    private Map<Long, Set<String>> getAuthorityNamesByUserId(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return userRepository
+            .findAllUserAuthorityViewsByUserIdIn(userIds)
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    UserAuthorityView::getUserId,
+                    Collectors.mapping(UserAuthorityView::getAuthorityName, Collectors.toSet())
+                )
+            );
     }
 
     /**
      * Gets a list of all the authorities.
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getNames();
     }
 }
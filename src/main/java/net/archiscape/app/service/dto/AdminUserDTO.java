@@ -1,5 +1,6 @@
 package net.archiscape.app.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.Instant;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -7,6 +8,7 @@ import javax.validation.constraints.*;
 import net.archiscape.app.config.Constants;
 import net.archiscape.app.domain.Authority;
 import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.projection.ManagedUserView;
 
 /**
  * A DTO representing a user, with his authorities.
@@ -46,8 +48,18 @@ public class AdminUserDTO {
 
     private Instant lastModifiedDate;
 
+    private Instant lastLoginDate;
+
+    private Instant lastSeenDate;
+
     private Set<String> authorities;
 
+    /**
+     * The version of the user, sent as its entity tag rather than in the body.
+     */
+    @JsonIgnore
+    private Long version;
+
     public AdminUserDTO() {
         // Empty constructor needed for Jackson.
     }
@@ -65,7 +77,28 @@ public class AdminUserDTO {
         this.createdDate = user.getCreatedDate();
         this.lastModifiedBy = user.getLastModifiedBy();
         this.lastModifiedDate = user.getLastModifiedDate();
+        this.lastLoginDate = user.getLastLoginDate();
+        this.lastSeenDate = user.getLastSeenDate();
         this.authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
+        this.version = user.getVersion();
+    }
+
+    public AdminUserDTO(ManagedUserView user, Set<String> authorities) {
+        this.id = user.getId();
+        this.login = user.getLogin();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.email = user.getEmail();
+        this.activated = user.isActivated();
+        this.imageUrl = user.getImageUrl();
+        this.langKey = user.getLangKey();
+        this.createdBy = user.getCreatedBy();
+        this.createdDate = user.getCreatedDate();
+        this.lastModifiedBy = user.getLastModifiedBy();
+        this.lastModifiedDate = user.getLastModifiedDate();
+        this.lastLoginDate = user.getLastLoginDate();
+        this.lastSeenDate = user.getLastSeenDate();
+        this.authorities = authorities;
     }
 
     public Long getId() {
@@ -164,6 +197,22 @@ public class AdminUserDTO {
         this.lastModifiedDate = lastModifiedDate;
     }
 
+    public Instant getLastLoginDate() {
+        return lastLoginDate;
+    }
+
+    public void setLastLoginDate(Instant lastLoginDate) {
+        this.lastLoginDate = lastLoginDate;
+    }
+
+    public Instant getLastSeenDate() {
+        return lastSeenDate;
+    }
+
+    public void setLastSeenDate(Instant lastSeenDate) {
+        this.lastSeenDate = lastSeenDate;
+    }
+
     public Set<String> getAuthorities() {
         return authorities;
     }
@@ -172,6 +221,14 @@ public class AdminUserDTO {
         this.authorities = authorities;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // prettier-ignore
     @Override
     public String toString() {
@@ -187,6 +244,8 @@ public class AdminUserDTO {
             ", createdDate=" + createdDate +
             ", lastModifiedBy='" + lastModifiedBy + '\'' +
             ", lastModifiedDate=" + lastModifiedDate +
+            ", lastLoginDate=" + lastLoginDate +
+            ", lastSeenDate=" + lastSeenDate +
             ", authorities=" + authorities +
             "}";
     }
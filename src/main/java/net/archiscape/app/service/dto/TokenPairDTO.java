@@ -0,0 +1,39 @@
+package net.archiscape.app.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A DTO representing a short-lived access JWT and the opaque refresh token renewing it.
+ */
+public class TokenPairDTO {
+
+    private final String accessToken;
+
+    private final String refreshToken;
+
+    private final long expiresIn;
+
+    public TokenPairDTO(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    @JsonProperty("id_token")
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    @JsonProperty("refresh_token")
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    /**
+     * @return the validity of the access token, in seconds.
+     */
+    @JsonProperty("expires_in")
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
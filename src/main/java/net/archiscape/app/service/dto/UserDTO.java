@@ -1,6 +1,7 @@
 package net.archiscape.app.service.dto;
 
 import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.projection.PublicUserView;
 
 /**
  * A DTO representing a user, with only the public attributes.
@@ -21,6 +22,11 @@ public class UserDTO {
         this.login = user.getLogin();
     }
 
+    public UserDTO(PublicUserView user) {
+        this.id = user.getId();
+        this.login = user.getLogin();
+    }
+
     public Long getId() {
         return id;
     }
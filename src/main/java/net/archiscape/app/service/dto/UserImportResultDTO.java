@@ -0,0 +1,93 @@
+package net.archiscape.app.service.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DTO representing the result of a bulk import of users.
+ */
+public class UserImportResultDTO {
+
+    private long imported;
+
+    private long rejected;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    private final int maxReportedErrors;
+
+    public UserImportResultDTO(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns the errors of the first rejected rows.
+     *
+     * @return the row errors, at most {@code maxReportedErrors} of them.
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public void reject(long line, String login, String message) {
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(line, login, message));
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserImportResultDTO{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            "}";
+    }
+
+    /**
+     * The reason why a row was rejected.
+     */
+    public static class RowError {
+
+        private final long line;
+
+        private final String login;
+
+        private final String message;
+
+        public RowError(long line, String login, String message) {
+            this.line = line;
+            this.login = login;
+            this.message = message;
+        }
+
+        /**
+         * @return the line of the row in the imported file, starting at 1.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
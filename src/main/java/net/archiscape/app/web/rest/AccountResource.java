@@ -5,6 +5,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import net.archiscape.app.domain.User;
 import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.security.AuthenticationRateLimiter;
 import net.archiscape.app.security.SecurityUtils;
 import net.archiscape.app.service.MailService;
 import net.archiscape.app.service.UserService;
@@ -16,7 +17,9 @@ import net.archiscape.app.web.rest.vm.ManagedUserVM;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -41,10 +44,18 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final AuthenticationRateLimiter authenticationRateLimiter;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        AuthenticationRateLimiter authenticationRateLimiter
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.authenticationRateLimiter = authenticationRateLimiter;
     }
 
     /**
@@ -94,26 +105,39 @@ public class AccountResource {
     /**
      * {@code GET  /account} : get the current user.
      *
-     * @return the current user.
+     * @return the current user, or an empty response with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be returned.
      */
     @GetMapping("/account")
-    public AdminUserDTO getAccount() {
+    public ResponseEntity<AdminUserDTO> getAccount() {
         return userService
             .getUserWithAuthorities()
-            .map(AdminUserDTO::new)
+            .map(user ->
+                ResponseEntity
+                    .ok()
+                    .cacheControl(EntityTagUtil.REVALIDATE)
+                    .eTag(EntityTagUtil.entityTag(user))
+                    .body(new AdminUserDTO(user))
+            )
             .orElseThrow(() -> new AccountResourceException("User could not be found"));
     }
 
     /**
      * {@code POST  /account} : update the current user information.
+     * <p>
+     * With an {@code If-Match} header, the user is only updated if it was not modified since it was read.
      *
      * @param userDTO the current user information.
+     * @param ifMatch the entity tag of the user when it was read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new entity tag, or with status {@code 412 (Precondition Failed)} if the user was modified since it was read.
      * @throws EmailAlreadyUsedException {@code 400 (Bad Request)} if the email is already used.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user login wasn't found.
      */
     @PostMapping("/account")
-    public void saveAccount(@Valid @RequestBody AdminUserDTO userDTO) {
+    public ResponseEntity<Void> saveAccount(
+        @Valid @RequestBody AdminUserDTO userDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         String userLogin = SecurityUtils
             .getCurrentUserLogin()
             .orElseThrow(() -> new AccountResourceException("Current user login not found"));
@@ -125,13 +149,18 @@ public class AccountResource {
         if (!user.isPresent()) {
             throw new AccountResourceException("User could not be found");
         }
-        userService.updateUser(
-            userDTO.getFirstName(),
-            userDTO.getLastName(),
-            userDTO.getEmail(),
-            userDTO.getLangKey(),
-            userDTO.getImageUrl()
-        );
+        Long expectedVersion = EntityTagUtil.getExpectedVersion(ifMatch, user.get().getId());
+        return userService
+            .updateUser(
+                userDTO.getFirstName(),
+                userDTO.getLastName(),
+                userDTO.getEmail(),
+                userDTO.getLangKey(),
+                userDTO.getImageUrl(),
+                expectedVersion
+            )
+            .map(updatedUser -> ResponseEntity.ok().eTag(EntityTagUtil.entityTag(updatedUser)).<Void>build())
+            .orElseThrow(() -> new AccountResourceException("User could not be found"));
     }
 
     /**
@@ -152,9 +181,11 @@ public class AccountResource {
      * {@code POST   /account/reset-password/init} : Send an email to reset the password of the user.
      *
      * @param mail the mail of the user.
+     * @param request the HTTP request.
      */
     @PostMapping(path = "/account/reset-password/init")
-    public void requestPasswordReset(@RequestBody String mail) {
+    public void requestPasswordReset(@RequestBody String mail, HttpServletRequest request) {
+        authenticationRateLimiter.checkPasswordReset(mail, request.getRemoteAddr());
         Optional<User> user = userService.requestPasswordReset(mail);
         if (user.isPresent()) {
             mailService.sendPasswordResetMail(user.get());
@@ -0,0 +1,100 @@
+package net.archiscape.app.web.rest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.archiscape.app.security.AuthoritiesConstants;
+import net.archiscape.app.service.AuditEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * REST controller for getting the audit events: logins, failed authentications and changes of users.
+ * <p>
+ * The events are written in the background, so the latest ones may not be listed yet.
+ */
+@RestController
+@RequestMapping("/api/admin/audits")
+public class AuditResource {
+
+    private static final List<String> ALLOWED_ORDERED_PROPERTIES = Collections.unmodifiableList(
+        Arrays.asList("id", "principal", "auditEventDate", "auditEventType")
+    );
+
+    private final Logger log = LoggerFactory.getLogger(AuditResource.class);
+
+    private final AuditEventService auditEventService;
+
+    public AuditResource(AuditEventService auditEventService) {
+        this.auditEventService = auditEventService;
+    }
+
+    /**
+     * {@code GET  /admin/audits} : get a page of the audit events, the latest first unless sorted otherwise.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of audit events in body.
+     */
+    @GetMapping
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<AuditEvent>> getAll(
+        @ParameterObject @SortDefault(sort = "auditEventDate", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        log.debug("REST request to get a page of AuditEvents");
+        if (!onlyContainsAllowedProperties(pageable)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return withPaginationHeaders(auditEventService.findAll(pageable));
+    }
+
+    /**
+     * {@code GET  /admin/audits} : get a page of the audit events between the {@code fromDate} and {@code toDate} days,
+     * in UTC.
+     *
+     * @param fromDate the first day of the events.
+     * @param toDate the last day of the events.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of audit events in body.
+     */
+    @GetMapping(params = { "fromDate", "toDate" })
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<AuditEvent>> getByDates(
+        @RequestParam(value = "fromDate") LocalDate fromDate,
+        @RequestParam(value = "toDate") LocalDate toDate,
+        @ParameterObject @SortDefault(sort = "auditEventDate", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        log.debug("REST request to get a page of AuditEvents between {} and {}", fromDate, toDate);
+        if (!onlyContainsAllowedProperties(pageable)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant from = fromDate.atStartOfDay(ZoneOffset.UTC).toInstant();
+        // the last day is included, the bounds of the query being inclusive
+        Instant to = toDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusNanos(1);
+        return withPaginationHeaders(auditEventService.findByDates(from, to, pageable));
+    }
+
+    private ResponseEntity<List<AuditEvent>> withPaginationHeaders(Page<AuditEvent> page) {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    private boolean onlyContainsAllowedProperties(Pageable pageable) {
+        return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
+    }
+}
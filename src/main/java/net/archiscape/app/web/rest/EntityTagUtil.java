@@ -0,0 +1,72 @@
+package net.archiscape.app.web.rest;
+
+import net.archiscape.app.domain.User;
+import net.archiscape.app.service.UserModifiedException;
+import net.archiscape.app.service.dto.AdminUserDTO;
+import org.springframework.http.CacheControl;
+
+/**
+ * Utility class for handling the entity tags of the users, derived from their id and version.
+ * <p>
+ * The reads send a strong {@code ETag}, which Spring MVC compares with the {@code If-None-Match} header of a
+ * {@code GET} request to answer {@code 304 (Not Modified)}. The updates compare the {@code If-Match} header with the
+ * version of the user in their transaction, and answer {@code 412 (Precondition Failed)} when it has changed.
+ */
+final class EntityTagUtil {
+
+    /**
+     * Lets the browsers keep a user and revalidate it, instead of the {@code no-store} default of Spring Security.
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final String ANY = "*";
+
+    private EntityTagUtil() {}
+
+    /**
+     * @param user the user.
+     * @return the strong entity tag of the user.
+     */
+    static String entityTag(User user) {
+        return entityTag(user.getId(), user.getVersion());
+    }
+
+    /**
+     * @param user the user, read with its version.
+     * @return the strong entity tag of the user.
+     */
+    static String entityTag(AdminUserDTO user) {
+        return entityTag(user.getId(), user.getVersion());
+    }
+
+    private static String entityTag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Reads the version of a user expected by an {@code If-Match} header.
+     *
+     * @param ifMatch the {@code If-Match} header, or {@code null}.
+     * @param id the id of the updated user.
+     * @return the expected version, or {@code null} if the header is absent or matches any version.
+     * @throws UserModifiedException if the header holds no strong entity tag of the user.
+     */
+    static Long getExpectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String entityTag : ifMatch.split(",")) {
+            String tag = entityTag.trim();
+            // weak tags never match, as If-Match uses the strong comparison
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.valueOf(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException e) {
+                    // not a tag of this application
+                }
+            }
+        }
+        throw new UserModifiedException();
+    }
+}
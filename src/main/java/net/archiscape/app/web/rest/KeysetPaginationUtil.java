@@ -0,0 +1,96 @@
+package net.archiscape.app.web.rest;
+
+import java.util.List;
+import java.util.Optional;
+import net.archiscape.app.repository.Keyset;
+import net.archiscape.app.repository.KeysetPage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination, the cursor based counterpart of
+ * {@link tech.jhipster.web.util.PaginationUtil}.
+ * <p>
+ * A list is read in keyset mode when the {@code cursor} request parameter is present: an empty cursor reads the first
+ * page with the sort of the request, a cursor taken from a {@code Link} header reads the next or previous page with the
+ * sort it was created with. The total count costs a full scan, so it is only sent on demand.
+ */
+final class KeysetPaginationUtil {
+
+    static final String CURSOR_PARAMETER = "cursor";
+
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Reads the keyset of a request.
+     *
+     * @param cursor the {@code cursor} request parameter, empty for the first page.
+     * @param pageable the pagination information, whose sort is used for the first page.
+     * @param allowedProperties the properties the list may be sorted by.
+     * @return the keyset, or empty if the cursor or the sort is invalid.
+     */
+    static Optional<Keyset> getKeyset(String cursor, Pageable pageable, List<String> allowedProperties) {
+        Keyset keyset;
+        if (cursor.isEmpty()) {
+            // the id is already the last sort key
+            List<Sort.Order> orders = pageable.getSort().filter(order -> !order.getProperty().equals("id")).toList();
+            if (orders.size() > 1) {
+                return Optional.empty();
+            }
+            Sort.Order order = orders.isEmpty() ? pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id")) : orders.get(0);
+            keyset = Keyset.first(order.getProperty(), order.getDirection());
+        } else {
+            try {
+                keyset = Keyset.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+        return allowedProperties.contains(keyset.getProperty()) ? Optional.of(keyset) : Optional.empty();
+    }
+
+    /**
+     * Generate pagination headers for a keyset page: {@code Link} headers to the next and previous pages, and the total
+     * count if it is known.
+     *
+     * @param uriBuilder the URI of the current request.
+     * @param page the page.
+     * @param totalCount the total number of elements, or {@code null} if it was not requested.
+     * @return the headers.
+     */
+    static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, KeysetPage<?> page, Long totalCount) {
+        HttpHeaders headers = new HttpHeaders();
+        if (totalCount != null) {
+            headers.add(HEADER_X_TOTAL_COUNT, Long.toString(totalCount));
+        }
+        StringBuilder link = new StringBuilder();
+        page.getNext().ifPresent(next -> link.append(prepareLink(uriBuilder, next, "next")));
+        page
+            .getPrevious()
+            .ifPresent(previous -> {
+                if (link.length() > 0) {
+                    link.append(",");
+                }
+                link.append(prepareLink(uriBuilder, previous, "prev"));
+            });
+        if (link.length() > 0) {
+            headers.add(HttpHeaders.LINK, link.toString());
+        }
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, Keyset keyset, String relType) {
+        // the cursor carries the sort, and replaces the page number
+        String uri = uriBuilder
+            .cloneBuilder()
+            .replaceQueryParam("page")
+            .replaceQueryParam("sort")
+            .replaceQueryParam(CURSOR_PARAMETER, keyset.encode())
+            .toUriString();
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+}
@@ -2,6 +2,8 @@ package net.archiscape.app.web.rest;
 
 import java.util.*;
 import java.util.Collections;
+import net.archiscape.app.repository.Keyset;
+import net.archiscape.app.repository.KeysetPage;
 import net.archiscape.app.service.UserService;
 import net.archiscape.app.service.dto.UserDTO;
 import org.slf4j.Logger;
@@ -35,15 +37,37 @@ public class PublicUserResource {
     /**
      * {@code GET /users} : get all users with only the public informations - calling this are allowed for anyone.
      *
+     * <p>
+     * With a {@code cursor} parameter, the users are read in keyset mode: see {@link KeysetPaginationUtil}.
+     *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page in keyset mode, empty for the first page.
+     * @param count whether to send the total count in keyset mode.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<UserDTO>> getAllPublicUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean count
+    ) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
+        if (cursor != null) {
+            Optional<Keyset> keyset = KeysetPaginationUtil.getKeyset(cursor, pageable, ALLOWED_ORDERED_PROPERTIES);
+            if (keyset.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            final KeysetPage<UserDTO> page = userService.getAllPublicUsers(keyset.get(), pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                page,
+                count ? userService.countPublicUsers() : null
+            );
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
 
         final Page<UserDTO> page = userService.getAllPublicUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
@@ -0,0 +1,98 @@
+package net.archiscape.app.web.rest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import net.archiscape.app.security.AuthenticationRateLimiter;
+import net.archiscape.app.security.jwt.JWTFilter;
+import net.archiscape.app.service.RefreshTokenService;
+import net.archiscape.app.service.dto.TokenPairDTO;
+import net.archiscape.app.web.rest.vm.LoginVM;
+import net.archiscape.app.web.rest.vm.RefreshTokenVM;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller to authenticate users with short-lived access tokens, renewed with refresh tokens.
+ */
+@RestController
+@RequestMapping("/api/token")
+public class RefreshTokenController {
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    private final AuthenticationRateLimiter authenticationRateLimiter;
+
+    public RefreshTokenController(
+        RefreshTokenService refreshTokenService,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        AuthenticationRateLimiter authenticationRateLimiter
+    ) {
+        this.refreshTokenService = refreshTokenService;
+        this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.authenticationRateLimiter = authenticationRateLimiter;
+    }
+
+    /**
+     * {@code POST  /token} : authenticate with a password, and get an access token along with a refresh token.
+     *
+     * @param loginVM the credentials.
+     * @param request the HTTP request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the tokens in body.
+     */
+    @PostMapping
+    public ResponseEntity<TokenPairDTO> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        authenticationRateLimiter.checkAuthentication(loginVM.getUsername(), request.getRemoteAddr());
+        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+            loginVM.getUsername(),
+            loginVM.getPassword()
+        );
+        // audited along with the authentication events
+        authenticationToken.setDetails(new WebAuthenticationDetails(request));
+
+        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return withAuthorizationHeader(refreshTokenService.issue(authentication, loginVM.isRememberMe()));
+    }
+
+    /**
+     * {@code POST  /token/refresh} : get new tokens with a refresh token, which can't be used again.
+     *
+     * @param refreshTokenVM the refresh token.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new tokens in body.
+     * @throws BadCredentialsException {@code 401 (Unauthorized)} if the refresh token is not valid.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenPairDTO> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        return refreshTokenService
+            .refresh(refreshTokenVM.getRefreshToken())
+            .map(this::withAuthorizationHeader)
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+    }
+
+    /**
+     * {@code POST  /token/revoke} : revoke a refresh token and the tokens it was rotated with, on logout.
+     *
+     * @param refreshTokenVM the refresh token.
+     */
+    @PostMapping("/revoke")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revoke(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        refreshTokenService.revoke(refreshTokenVM.getRefreshToken());
+    }
+
+    private ResponseEntity<TokenPairDTO> withAuthorizationHeader(TokenPairDTO tokens) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + tokens.getAccessToken());
+        return new ResponseEntity<>(tokens, httpHeaders, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,128 @@
+package net.archiscape.app.web.rest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import net.archiscape.app.service.dto.AdminUserDTO;
+import org.springframework.http.MediaType;
+
+/**
+ * Writer of the users exported by {@link UserResource}, one line per user.
+ * <p>
+ * Nothing is flushed after each user: the output is only flushed when its buffer is full, and once at the end.
+ */
+abstract class UserExportWriter {
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /**
+     * Write the user.
+     *
+     * @param user the user to write.
+     * @throws IOException if the user could not be written.
+     */
+    abstract void write(AdminUserDTO user) throws IOException;
+
+    /**
+     * Flush the buffered output, without closing the underlying stream.
+     *
+     * @throws IOException if the output could not be flushed.
+     */
+    abstract void flush() throws IOException;
+
+    /**
+     * Create a writer of newline delimited JSON documents.
+     *
+     * @param out the output stream.
+     * @param objectMapper the object mapper serializing the users.
+     * @return the writer.
+     * @throws IOException if the JSON generator could not be created.
+     */
+    static UserExportWriter ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // the documents are separated by line breaks, not by the default space
+        generator.setRootValueSeparator(null);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return new UserExportWriter() {
+            @Override
+            void write(AdminUserDTO user) throws IOException {
+                writer.writeValue(generator, user);
+                generator.writeRaw('\n');
+            }
+
+            @Override
+            void flush() throws IOException {
+                generator.flush();
+            }
+        };
+    }
+
+    /**
+     * Create a writer of RFC 4180 CSV records, starting with a header record.
+     *
+     * @param out the output stream.
+     * @return the writer.
+     * @throws IOException if the header could not be written.
+     */
+    static UserExportWriter csv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(
+            "id,login,firstName,lastName,email,imageUrl,activated,langKey," +
+            "createdBy,createdDate,lastModifiedBy,lastModifiedDate,lastLoginDate,lastSeenDate,authorities\r\n"
+        );
+        return new UserExportWriter() {
+            @Override
+            void write(AdminUserDTO user) throws IOException {
+                writer.write(String.valueOf(user.getId()));
+                writeField(user.getLogin());
+                writeField(user.getFirstName());
+                writeField(user.getLastName());
+                writeField(user.getEmail());
+                writeField(user.getImageUrl());
+                writeField(String.valueOf(user.isActivated()));
+                writeField(user.getLangKey());
+                writeField(user.getCreatedBy());
+                writeField(format(user.getCreatedDate()));
+                writeField(user.getLastModifiedBy());
+                writeField(format(user.getLastModifiedDate()));
+                writeField(format(user.getLastLoginDate()));
+                writeField(format(user.getLastSeenDate()));
+                writeField(user.getAuthorities() == null ? null : String.join(",", user.getAuthorities()));
+                writer.write("\r\n");
+            }
+
+            @Override
+            void flush() throws IOException {
+                writer.flush();
+            }
+
+            private void writeField(String value) throws IOException {
+                writer.write(',');
+                if (value == null) {
+                    return;
+                }
+                if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                    writer.write(value);
+                } else {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                }
+            }
+
+            private String format(Instant instant) {
+                return instant == null ? null : instant.toString();
+            }
+        };
+    }
+}
@@ -1,18 +1,28 @@
 package net.archiscape.app.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import javax.validation.Valid;
 import javax.validation.constraints.Pattern;
+import net.archiscape.app.config.ApplicationProperties;
 import net.archiscape.app.config.Constants;
 import net.archiscape.app.domain.User;
-import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.repository.Keyset;
+import net.archiscape.app.repository.KeysetPage;
 import net.archiscape.app.security.AuthoritiesConstants;
 import net.archiscape.app.service.MailService;
+import net.archiscape.app.service.UserImportService;
 import net.archiscape.app.service.UserService;
 import net.archiscape.app.service.dto.AdminUserDTO;
+import net.archiscape.app.service.dto.UserImportResultDTO;
 import net.archiscape.app.web.rest.errors.BadRequestAlertException;
 import net.archiscape.app.web.rest.errors.EmailAlreadyUsedException;
 import net.archiscape.app.web.rest.errors.LoginAlreadyUsedException;
@@ -22,15 +32,22 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing users.
@@ -72,10 +89,14 @@ public class UserResource {
             "createdBy",
             "createdDate",
             "lastModifiedBy",
-            "lastModifiedDate"
+            "lastModifiedDate",
+            "lastLoginDate",
+            "lastSeenDate"
         )
     );
 
+    private static final String EXPORT_TIMEOUT_INTERCEPTOR_KEY = UserResource.class.getName() + ".exportTimeout";
+
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
 
     @Value("${jhipster.clientApp.name}")
@@ -83,14 +104,27 @@ public class UserResource {
 
     private final UserService userService;
 
-    private final UserRepository userRepository;
-
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final UserImportService userImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final CallableProcessingInterceptor exportTimeoutInterceptor;
+
+    public UserResource(
+        UserService userService,
+        MailService mailService,
+        UserImportService userImportService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
         this.userService = userService;
-        this.userRepository = userRepository;
         this.mailService = mailService;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+        this.exportTimeoutInterceptor =
+            new TimeoutInterceptor(TimeUnit.SECONDS.toMillis(applicationProperties.getUserExport().getTimeoutInSeconds()));
     }
 
     /**
@@ -112,12 +146,8 @@ public class UserResource {
 
         if (userDTO.getId() != null) {
             throw new BadRequestAlertException("A new user cannot already have an ID", "userManagement", "idexists");
-            // Lowercase the user login before comparing with database
-        } else if (userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).isPresent()) {
-            throw new LoginAlreadyUsedException();
-        } else if (userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).isPresent()) {
-            throw new EmailAlreadyUsedException();
         } else {
+            // the service checks that the login and the email are not already used
             User newUser = userService.createUser(userDTO);
             mailService.sendCreationEmail(newUser);
             return ResponseEntity
@@ -129,51 +159,149 @@ public class UserResource {
 
     /**
      * {@code PUT /admin/users} : Updates an existing User.
+     * <p>
+     * With an {@code If-Match} header, the user is only updated if it was not modified since it was read.
      *
      * @param userDTO the user to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated user.
+     * @param ifMatch the entity tag of the user when it was read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated user, or with status {@code 412 (Precondition Failed)} if the user was modified since it was read.
      * @throws EmailAlreadyUsedException {@code 400 (Bad Request)} if the email is already in use.
      * @throws LoginAlreadyUsedException {@code 400 (Bad Request)} if the login is already in use.
      */
     @PutMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<AdminUserDTO> updateUser(@Valid @RequestBody AdminUserDTO userDTO) {
+    public ResponseEntity<AdminUserDTO> updateUser(
+        @Valid @RequestBody AdminUserDTO userDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         log.debug("REST request to update User : {}", userDTO);
-        Optional<User> existingUser = userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
-        if (existingUser.isPresent() && (!existingUser.get().getId().equals(userDTO.getId()))) {
-            throw new EmailAlreadyUsedException();
-        }
-        existingUser = userRepository.findOneByLogin(userDTO.getLogin().toLowerCase());
-        if (existingUser.isPresent() && (!existingUser.get().getId().equals(userDTO.getId()))) {
-            throw new LoginAlreadyUsedException();
-        }
-        Optional<AdminUserDTO> updatedUser = userService.updateUser(userDTO);
+        Long expectedVersion = EntityTagUtil.getExpectedVersion(ifMatch, userDTO.getId());
+        // the service checks that the login and the email are not used by another user
+        Optional<AdminUserDTO> updatedUser = userService.updateUser(userDTO, expectedVersion);
 
-        return ResponseUtil.wrapOrNotFound(
-            updatedUser,
-            HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin())
-        );
+        return updatedUser
+            .map(user ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.entityTag(user))
+                    .headers(HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin()))
+                    .body(user)
+            )
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     /**
      * {@code GET /admin/users} : get all users with all the details - calling this are only allowed for the administrators.
      *
+     * <p>
+     * With a {@code cursor} parameter, the users are read in keyset mode: see {@link KeysetPaginationUtil}.
+     *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page in keyset mode, empty for the first page.
+     * @param count whether to send the total count in keyset mode.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<List<AdminUserDTO>> getAllUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<AdminUserDTO>> getAllUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean count
+    ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
+        if (cursor != null) {
+            Optional<Keyset> keyset = KeysetPaginationUtil.getKeyset(cursor, pageable, ALLOWED_ORDERED_PROPERTIES);
+            if (keyset.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            final KeysetPage<AdminUserDTO> page = userService.getAllManagedUsers(keyset.get(), pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                page,
+                count ? userService.countManagedUsers() : null
+            );
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
 
         final Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET /admin/users/export} : export all users with all the details, streamed with constant memory.
+     * <p>
+     * The export lasts as long as the table takes to read: its request has its own timeout, set by
+     * {@code application.user-export.timeout-in-seconds}, instead of the one of the other asynchronous requests.
+     *
+     * @param format the export format, {@code ndjson} or {@code csv}.
+     * @param webRequest the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users sorted by id, one per line, or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+        @RequestParam(defaultValue = "ndjson") String format,
+        NativeWebRequest webRequest
+    ) {
+        log.debug("REST request to export all Users as {}", format);
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(EXPORT_TIMEOUT_INTERCEPTOR_KEY, exportTimeoutInterceptor);
+
+        StreamingResponseBody body = out -> {
+            UserExportWriter writer = csv ? UserExportWriter.csv(out) : UserExportWriter.ndjson(out, objectMapper);
+            try {
+                userService.exportManagedUsers(user -> {
+                    try {
+                        writer.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity
+            .ok()
+            .contentType(csv ? UserExportWriter.TEXT_CSV : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("users." + format).build().toString())
+            .body(body);
+    }
+
+    /**
+     * {@code POST  /admin/users/import} : Imports users in bulk.
+     * <p>
+     * The body is a CSV or NDJSON file, gzipped or not. Valid rows are inserted in batches without sending any mail:
+     * the imported users set their password by requesting a password reset.
+     *
+     * @param contentType the content type of the file, {@code text/csv} or {@code application/x-ndjson}.
+     * @param body the file.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of imported users and the errors of the rejected rows.
+     * @throws IOException if the file could not be read.
+     */
+    @PostMapping(value = "/users/import", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<UserImportResultDTO> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body)
+        throws IOException {
+        log.debug("REST request to import Users as {}", contentType);
+        UserImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+            ? UserImportService.Format.NDJSON
+            : UserImportService.Format.CSV;
+        UserImportResultDTO result = userImportService.importUsers(body, format);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, "userManagement.imported", String.valueOf(result.getImported())))
+            .body(result);
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
@@ -182,13 +310,22 @@ public class UserResource {
      * {@code GET /admin/users/:login} : get the "login" user.
      *
      * @param login the login of the user to find.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the "login" user, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the "login" user, or with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/users/{login}")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public ResponseEntity<AdminUserDTO> getUser(@PathVariable @Pattern(regexp = Constants.LOGIN_REGEX) String login) {
         log.debug("REST request to get User : {}", login);
-        return ResponseUtil.wrapOrNotFound(userService.getUserWithAuthoritiesByLogin(login).map(AdminUserDTO::new));
+        return userService
+            .getUserWithAuthoritiesByLogin(login)
+            .map(user ->
+                ResponseEntity
+                    .ok()
+                    .cacheControl(EntityTagUtil.REVALIDATE)
+                    .eTag(EntityTagUtil.entityTag(user))
+                    .body(new AdminUserDTO(user))
+            )
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     /**
@@ -204,4 +341,24 @@ public class UserResource {
         userService.deleteUser(login);
         return ResponseEntity.noContent().headers(HeaderUtil.createAlert(applicationName, "userManagement.deleted", login)).build();
     }
+
+    /**
+     * Sets the timeout of an asynchronous request, before its concurrent handling starts.
+     */
+    private static class TimeoutInterceptor implements CallableProcessingInterceptor {
+
+        private final long timeoutInMillis;
+
+        TimeoutInterceptor(long timeoutInMillis) {
+            this.timeoutInMillis = timeoutInMillis;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            // the interceptors are handed the asynchronous request, which is started right after them
+            if (request instanceof AsyncWebRequest) {
+                ((AsyncWebRequest) request).setTimeout(timeoutInMillis);
+            }
+        }
+    }
 }
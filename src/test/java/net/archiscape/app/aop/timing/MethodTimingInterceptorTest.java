@@ -0,0 +1,151 @@
+package net.archiscape.app.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+
+class MethodTimingInterceptorTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testInvocationsAreTimedByOutcome() {
+        TimedService service = proxy(1, List.of());
+
+        assertThat(service.greet("admin")).isEqualTo("Hello admin");
+        assertThat(service.greet("user")).isEqualTo("Hello user");
+        assertThatThrownBy(() -> service.fail()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("greet", "success").count()).isEqualTo(2);
+        assertThat(timer("fail", "error").count()).isEqualTo(1);
+        assertThat(timer("fail", "success").count()).isZero();
+    }
+
+    @Test
+    void testNoInvocationIsTimedWithoutSampling() {
+        TimedService service = proxy(0, List.of());
+
+        service.greet("admin");
+
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METHOD_TIMER_METER_NAME).timers()).isEmpty();
+    }
+
+    @Test
+    void testOnlyTheListedMethodsAreTimed() {
+        TimedService service = proxy(1, List.of("TimedService.greet"));
+
+        service.greet("admin");
+        assertThatThrownBy(() -> service.fail()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METHOD_TIMER_METER_NAME).timers())
+            .allSatisfy(timer -> assertThat(timer.getId().getTag("method")).isEqualTo("greet"));
+        assertThat(timer("greet", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testListedClassesAreTimed() {
+        TimedService service = proxy(1, List.of("TimedService"));
+
+        assertThatThrownBy(() -> service.fail()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("fail", "error").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testInheritedMethodsAreTimedByClass() {
+        MethodTimingInterceptor interceptor = interceptor(1, List.of());
+        TimedService service = proxy(new TimedService(), interceptor);
+        OtherTimedService otherService = proxy(new OtherTimedService(), interceptor);
+
+        service.describe();
+        otherService.describe();
+        otherService.describe();
+
+        assertThat(timer("service", "TimedService", "describe", "success").count()).isEqualTo(1);
+        assertThat(timer("service", "OtherTimedService", "describe", "success").count()).isEqualTo(2);
+    }
+
+    @Test
+    void testJdkProxiesAreTimedByInterface() {
+        ProxyFactory repositoryFactory = new ProxyFactory(TimedRepository.class, (MethodInterceptor) invocation -> "found");
+        TimedRepository repository = proxy(repositoryFactory.getProxy(), interceptor(1, List.of("TimedRepository")));
+
+        assertThat(repository.find()).isEqualTo("found");
+
+        assertThat(timer("repository", "TimedRepository", "find", "success").count()).isEqualTo(1);
+    }
+
+    private TimedService proxy(double samplingRate, List<String> methods) {
+        return proxy(new TimedService(), interceptor(samplingRate, methods));
+    }
+
+    private MethodTimingInterceptor interceptor(double samplingRate, List<String> methods) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        return new MethodTimingInterceptor(beanFactory.getBeanProvider(MeterRegistry.class), samplingRate, methods);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Object target, MethodTimingInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(interceptor);
+        return (T) proxyFactory.getProxy();
+    }
+
+    private Timer timer(String method, String outcome) {
+        return timer("service", "TimedService", method, outcome);
+    }
+
+    private Timer timer(String layer, String className, String method, String outcome) {
+        return meterRegistry
+            .get(MethodTimingInterceptor.METHOD_TIMER_METER_NAME)
+            .tag(MethodTimingInterceptor.METHOD_TIMER_METER_LAYER_DIMENSION, layer)
+            .tag(MethodTimingInterceptor.METHOD_TIMER_METER_CLASS_DIMENSION, className)
+            .tag(MethodTimingInterceptor.METHOD_TIMER_METER_METHOD_DIMENSION, method)
+            .tag(MethodTimingInterceptor.METHOD_TIMER_METER_OUTCOME_DIMENSION, outcome)
+            .timer();
+    }
+
+    public abstract static class BaseTimedService {
+
+        public String describe() {
+            return getClass().getSimpleName();
+        }
+    }
+
+    @Service
+    public static class TimedService extends BaseTimedService {
+
+        public String greet(String name) {
+            return "Hello " + name;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failure");
+        }
+    }
+
+    @Service
+    public static class OtherTimedService extends BaseTimedService {}
+
+    @Repository
+    public interface TimedRepository {
+        String find();
+    }
+}
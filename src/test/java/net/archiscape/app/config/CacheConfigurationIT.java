@@ -0,0 +1,102 @@
+package net.archiscape.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManagerFactory;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the Hibernate second-level cache regions of {@link CacheConfiguration}.
+ */
+@IntegrationTest
+class CacheConfigurationIT {
+
+    private static final long ADMIN_ID = 1L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testUserIsLoadedFromSecondLevelCache() {
+        double missesBefore = misses(CacheConfiguration.USER_REGION);
+        loadAdmin();
+        assertThat(misses(CacheConfiguration.USER_REGION)).isGreaterThan(missesBefore);
+
+        double hitsBefore = hits(CacheConfiguration.USER_REGION);
+        missesBefore = misses(CacheConfiguration.USER_REGION);
+        for (int i = 0; i < 10; i++) {
+            loadAdmin();
+        }
+
+        double hits = hits(CacheConfiguration.USER_REGION) - hitsBefore;
+        double misses = misses(CacheConfiguration.USER_REGION) - missesBefore;
+        assertThat(hits).isEqualTo(10);
+        assertThat(hits / (hits + misses)).isEqualTo(1.0);
+    }
+
+    @Test
+    void testAuthoritiesAreLoadedFromSecondLevelCache() {
+        loadAdmin();
+
+        double collectionHitsBefore = hits(CacheConfiguration.USER_AUTHORITIES_REGION);
+        double collectionMissesBefore = misses(CacheConfiguration.USER_AUTHORITIES_REGION);
+        double authorityHitsBefore = hits(CacheConfiguration.AUTHORITY_REGION);
+        double authorityMissesBefore = misses(CacheConfiguration.AUTHORITY_REGION);
+        for (int i = 0; i < 10; i++) {
+            loadAdmin();
+        }
+
+        assertThat(hits(CacheConfiguration.USER_AUTHORITIES_REGION) - collectionHitsBefore).isEqualTo(10);
+        assertThat(misses(CacheConfiguration.USER_AUTHORITIES_REGION) - collectionMissesBefore).isZero();
+        assertThat(hits(CacheConfiguration.AUTHORITY_REGION) - authorityHitsBefore).isGreaterThanOrEqualTo(10);
+        assertThat(misses(CacheConfiguration.AUTHORITY_REGION) - authorityMissesBefore).isZero();
+    }
+
+    @Test
+    void testRegionsAreExportedToMicrometer() {
+        for (String region : new String[] {
+            CacheConfiguration.USER_REGION,
+            CacheConfiguration.AUTHORITY_REGION,
+            CacheConfiguration.USER_AUTHORITIES_REGION,
+        }) {
+            assertThat(meterRegistry.find("cache.gets").tag("cache", region).functionCounters()).isNotEmpty();
+            assertThat(meterRegistry.find("cache.puts").tag("cache", region).functionCounter()).isNotNull();
+        }
+    }
+
+    private void loadAdmin() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User admin = userRepository.findById(ADMIN_ID).orElseThrow();
+            assertThat(admin.getAuthorities()).isNotEmpty();
+        });
+    }
+
+    private double hits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+
+    private double misses(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "miss").functionCounter().count();
+    }
+}
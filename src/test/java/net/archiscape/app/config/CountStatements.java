@@ -0,0 +1,23 @@
+package net.archiscape.app.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Counts the SQL statements issued by each MockMvc request of an integration test, to be asserted with the
+ * {@link StatementCountMatchers}:
+ * <pre>
+ * restUserMockMvc.perform(get("/api/admin/users?size=50")).andExpect(statements().atMost(3));
+ * </pre>
+ * To be used alongside {@link net.archiscape.app.IntegrationTest} and
+ * {@link org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc}. The {@link StatementCounter}
+ * bean also captures the statements of a part of a test, between its {@code start()} and {@code stop()}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Import(StatementCounter.CountingConfiguration.class)
+public @interface CountStatements {
+}
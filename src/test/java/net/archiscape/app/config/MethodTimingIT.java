@@ -0,0 +1,66 @@
+package net.archiscape.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.aop.timing.MethodTimingInterceptor;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link MethodTimingConfiguration}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "application.method-timing.enabled=true", "application.method-timing.sampling-rate=1" })
+@Transactional
+class MethodTimingIT {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void assertThatServiceMethodsAreTimed() {
+        userService.getUserWithAuthoritiesByLogin("admin");
+        userService.getUserWithAuthoritiesByLogin("user");
+
+        assertThat(
+            meterRegistry
+                .get(MethodTimingInterceptor.METHOD_TIMER_METER_NAME)
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_LAYER_DIMENSION, "service")
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_CLASS_DIMENSION, "UserService")
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_METHOD_DIMENSION, "getUserWithAuthoritiesByLogin")
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_OUTCOME_DIMENSION, "success")
+                .timer()
+                .count()
+        )
+            .isEqualTo(2);
+    }
+
+    @Test
+    void assertThatRepositoryMethodsAreTimedByRepositoryInterface() {
+        userRepository.findOneByLogin("admin");
+
+        assertThat(
+            meterRegistry
+                .get(MethodTimingInterceptor.METHOD_TIMER_METER_NAME)
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_LAYER_DIMENSION, "repository")
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_CLASS_DIMENSION, "UserRepository")
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_METHOD_DIMENSION, "findOneByLogin")
+                .tag(MethodTimingInterceptor.METHOD_TIMER_METER_OUTCOME_DIMENSION, "success")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+}
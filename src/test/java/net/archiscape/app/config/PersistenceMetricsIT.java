@@ -0,0 +1,63 @@
+package net.archiscape.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.management.HibernateEntityMetrics;
+import net.archiscape.app.management.StatementStatistics;
+import net.archiscape.app.management.StatementsEndpoint;
+import net.archiscape.app.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link PersistenceMetricsConfiguration}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.persistence-metrics.enabled=true")
+@Transactional
+class PersistenceMetricsIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementsEndpoint statementsEndpoint;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        statementsEndpoint.reset();
+    }
+
+    @Test
+    void assertThatStatementsAreTracedToTheirRepositoryMethod() {
+        userRepository.findOneByLogin("admin");
+
+        assertThat(statementsEndpoint.statements(null))
+            .filteredOn(statement -> statement.getSql().contains("jhi_user"))
+            .flatExtracting(StatementStatistics.StatementSummary::getRepositoryMethods)
+            .contains("UserRepository.findOneByLogin");
+    }
+
+    @Test
+    void assertThatEntityStatisticsAreExported() {
+        userRepository.findOneByLogin("admin");
+
+        assertThat(
+            meterRegistry
+                .get(HibernateEntityMetrics.ENTITY_OPERATIONS_METER_NAME)
+                .tag(HibernateEntityMetrics.ENTITY_OPERATIONS_METER_ENTITY_DIMENSION, "User")
+                .tag(HibernateEntityMetrics.ENTITY_OPERATIONS_METER_OPERATION_DIMENSION, "load")
+                .functionCounter()
+                .count()
+        )
+            .isPositive();
+    }
+}
@@ -0,0 +1,136 @@
+package net.archiscape.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import net.archiscape.app.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the read/write routing of {@link DatabaseConfiguration.ReplicaRoutingConfiguration}, with a
+ * second H2 database as the replica.
+ */
+@IntegrationTest
+@ActiveProfiles("testreplica")
+class ReplicaRoutingIT {
+
+    private static final String DATABASE_NAME = "select database()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private TransactionTemplate replicaTransactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicaTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(replicaDataSource));
+        // the schema of the primary is created by Liquibase, the replica only needs the heartbeat
+        replicaTransactionTemplate.executeWithoutResult(status ->
+            replicaJdbcTemplate.execute("create table if not exists replica_heartbeat (id integer primary key, beat timestamp not null)")
+        );
+    }
+
+    @Test
+    void assertThatReadOnlyTransactionsGoToTheReplica() {
+        receiveHeartbeat(Instant.now());
+        replicaLagGuard.check();
+
+        assertThat(replicaLagGuard.isReplicaUsable()).isTrue();
+        assertThat(databaseName(true)).isEqualToIgnoringCase("replica");
+        assertThat(databaseName(false)).isEqualToIgnoringCase("archiscape");
+    }
+
+    @Test
+    void assertThatReadOnlyTransactionsFallBackToThePrimaryWhenTheReplicaIsLate() {
+        receiveHeartbeat(Instant.now().minus(1, ChronoUnit.HOURS));
+        replicaLagGuard.check();
+
+        assertThat(replicaLagGuard.isReplicaUsable()).isFalse();
+        assertThat(databaseName(true)).isEqualToIgnoringCase("archiscape");
+    }
+
+    @Test
+    void assertThatTheReplicaIsNotUsedOnceTheChecksStop() {
+        AtomicLong clock = new AtomicLong();
+        ReplicaLagGuard guard = new ReplicaLagGuard(primaryDataSource, replicaDataSource, 5000, new SimpleMeterRegistry(), clock::get);
+        receiveHeartbeat(Instant.now());
+        guard.check();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5000));
+        assertThat(guard.isReplicaUsable()).isTrue();
+
+        clock.incrementAndGet();
+        assertThat(guard.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void assertThatTheHeartbeatIsWrittenToThePrimary() {
+        Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        replicaLagGuard.check();
+
+        Timestamp beat = new TransactionTemplate(transactionManager).execute(status ->
+            jdbcTemplate.query(
+                "select beat from replica_heartbeat where id = 1",
+                rs -> rs.next() ? rs.getTimestamp(1, Calendar.getInstance(TimeZone.getTimeZone("UTC"))) : null
+            )
+        );
+        assertThat(beat).isNotNull();
+        assertThat(beat.toInstant()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    void assertThatStatementsOutsideTransactionsGoToThePrimary() {
+        receiveHeartbeat(Instant.now());
+        replicaLagGuard.check();
+
+        assertThat(jdbcTemplate.queryForObject(DATABASE_NAME, String.class)).isEqualToIgnoringCase("archiscape");
+    }
+
+    private String databaseName(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(DATABASE_NAME, String.class));
+    }
+
+    private void receiveHeartbeat(Instant beat) {
+        replicaTransactionTemplate.executeWithoutResult(status ->
+            replicaJdbcTemplate.update(
+                "merge into replica_heartbeat (id, beat) values (1, ?)",
+                ps -> ps.setTimestamp(1, Timestamp.from(beat), Calendar.getInstance(TimeZone.getTimeZone("UTC")))
+            )
+        );
+    }
+}
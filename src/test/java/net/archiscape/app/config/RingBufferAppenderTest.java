@@ -0,0 +1,147 @@
+package net.archiscape.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RingBufferAppenderTest {
+
+    private LoggerContext context;
+
+    private Logger logger;
+
+    private BlockingAppender blockingAppender;
+
+    private RingBufferAppender ringBufferAppender;
+
+    @BeforeEach
+    public void setup() {
+        context = new LoggerContext();
+        logger = context.getLogger(RingBufferAppenderTest.class);
+        blockingAppender = new BlockingAppender();
+        blockingAppender.setContext(context);
+        blockingAppender.start();
+        ringBufferAppender = new RingBufferAppender();
+        ringBufferAppender.setContext(context);
+        ringBufferAppender.setName("ASYNC");
+        ringBufferAppender.setBufferCapacity(4);
+        ringBufferAppender.setDiscardingThreshold(0.5);
+        ringBufferAppender.setDiscardingLevel(Level.INFO);
+        ringBufferAppender.addAppender(blockingAppender);
+        ringBufferAppender.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        blockingAppender.release.countDown();
+        ringBufferAppender.stop();
+    }
+
+    @Test
+    void testEventsAreAppendedInOrder() {
+        blockingAppender.release.countDown();
+
+        for (int i = 0; i < 3; i++) {
+            ringBufferAppender.doAppend(event(Level.INFO, "message " + i));
+        }
+        ringBufferAppender.stop();
+
+        assertThat(messages()).containsExactly("message 0", "message 1", "message 2");
+        assertThat(ringBufferAppender.getDroppedCount()).isZero();
+        assertThat(blockingAppender.isStarted()).isFalse();
+    }
+
+    @Test
+    void testLowLevelEventsAreDroppedUnderPressure() throws InterruptedException {
+        // the worker holds the first event, the buffer holds the next ones
+        ringBufferAppender.doAppend(event(Level.INFO, "held"));
+        assertThat(blockingAppender.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ringBufferAppender.doAppend(event(Level.INFO, "info 1"));
+        ringBufferAppender.doAppend(event(Level.INFO, "info 2"));
+        ringBufferAppender.doAppend(event(Level.DEBUG, "debug beyond the threshold"));
+        ringBufferAppender.doAppend(event(Level.INFO, "info beyond the threshold"));
+        ringBufferAppender.doAppend(event(Level.WARN, "warn 1"));
+        ringBufferAppender.doAppend(event(Level.ERROR, "error 1"));
+        ringBufferAppender.doAppend(event(Level.ERROR, "error beyond the capacity"));
+
+        assertThat(ringBufferAppender.getPendingCount()).isEqualTo(4);
+        assertThat(ringBufferAppender.getDroppedCount()).isEqualTo(3);
+
+        blockingAppender.release.countDown();
+        ringBufferAppender.stop();
+
+        assertThat(messages()).containsExactly("held", "info 1", "info 2", "warn 1", "error 1");
+    }
+
+    @Test
+    void testMetersAreBound() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ringBufferAppender.bindTo(meterRegistry);
+
+        ringBufferAppender.doAppend(event(Level.INFO, "held"));
+
+        assertThat(
+            meterRegistry
+                .get(RingBufferAppender.PENDING_EVENTS_METER_NAME)
+                .tag(RingBufferAppender.EVENTS_METER_APPENDER_DIMENSION, "ASYNC")
+                .gauge()
+                .value()
+        )
+            .isBetween(0.0, 1.0);
+        assertThat(
+            meterRegistry
+                .get(RingBufferAppender.DROPPED_EVENTS_METER_NAME)
+                .tag(RingBufferAppender.EVENTS_METER_APPENDER_DIMENSION, "ASYNC")
+                .functionCounter()
+                .count()
+        )
+            .isZero();
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(RingBufferAppenderTest.class.getName(), logger, level, message, null, null);
+    }
+
+    private List<String> messages() {
+        return blockingAppender.events.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+
+    /**
+     * Collects the events, once released.
+     */
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.archiscape.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.repository.SchedulerLockRepository;
+import net.archiscape.app.service.UserCleanupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the scheduled jobs, sharing the pool of the task scheduler.
+ */
+@IntegrationTest
+@ActiveProfiles("testreplica")
+@TestPropertySource(properties = "application.datasource.replica.heartbeat-interval-in-millis=100")
+class SchedulingIT {
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Autowired
+    private UserCleanupService userCleanupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Test
+    void assertThatTheReplicaLagIsCheckedWhileTheNotActivatedUsersAreRemoved() throws InterruptedException {
+        CountDownLatch removalStarted = new CountDownLatch(1);
+        CountDownLatch removalReleased = new CountDownLatch(1);
+        // the removal holds its scheduler thread until released
+        when(schedulerLockRepository.tryLock(any(), any(), any(), any()))
+            .thenAnswer(invocation -> {
+                removalStarted.countDown();
+                removalReleased.await(30, TimeUnit.SECONDS);
+                return false;
+            });
+        try {
+            taskScheduler.execute(userCleanupService::removeNotActivatedUsers);
+            assertThat(removalStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Instant removalStart = Instant.now();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            Instant beat = heartbeat();
+            while ((beat == null || beat.isBefore(removalStart)) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+                beat = heartbeat();
+            }
+
+            assertThat(removalReleased.getCount()).isEqualTo(1);
+            assertThat(beat).isNotNull().isAfterOrEqualTo(removalStart);
+        } finally {
+            removalReleased.countDown();
+        }
+    }
+
+    private Instant heartbeat() {
+        Timestamp beat = new TransactionTemplate(transactionManager).execute(status ->
+            jdbcTemplate.query(
+                "select beat from replica_heartbeat where id = 1",
+                rs -> rs.next() ? rs.getTimestamp(1, Calendar.getInstance(TimeZone.getTimeZone("UTC"))) : null
+            )
+        );
+        return beat == null ? null : beat.toInstant();
+    }
+}
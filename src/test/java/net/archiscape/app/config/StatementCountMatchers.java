@@ -0,0 +1,115 @@
+package net.archiscape.app.config;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import net.archiscape.app.config.StatementCounter.CapturedStatement;
+import net.ttddyy.dsproxy.QueryType;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Factory for assertions on the SQL statements issued by a MockMvc request, in an integration test annotated with
+ * {@link CountStatements}.
+ * <p>
+ * A failed assertion lists the statements with the methods of the application they were issued from, so that an
+ * {@code N+1} regression can be tracked down from the test report.
+ */
+public final class StatementCountMatchers {
+
+    private StatementCountMatchers() {}
+
+    /**
+     * @return the matchers of all the statements.
+     */
+    public static StatementCountResultMatchers statements() {
+        return new StatementCountResultMatchers("statements", statement -> true);
+    }
+
+    /**
+     * @return the matchers of the {@code SELECT} statements.
+     */
+    public static StatementCountResultMatchers selects() {
+        return ofType(QueryType.SELECT);
+    }
+
+    /**
+     * @return the matchers of the {@code INSERT} statements.
+     */
+    public static StatementCountResultMatchers inserts() {
+        return ofType(QueryType.INSERT);
+    }
+
+    /**
+     * @return the matchers of the {@code UPDATE} statements.
+     */
+    public static StatementCountResultMatchers updates() {
+        return ofType(QueryType.UPDATE);
+    }
+
+    /**
+     * @return the matchers of the {@code DELETE} statements.
+     */
+    public static StatementCountResultMatchers deletes() {
+        return ofType(QueryType.DELETE);
+    }
+
+    private static StatementCountResultMatchers ofType(QueryType type) {
+        return new StatementCountResultMatchers(type + " statements", statement -> statement.getType() == type);
+    }
+
+    /**
+     * Matchers of the number of statements of a kind.
+     */
+    public static class StatementCountResultMatchers {
+
+        private final String description;
+
+        private final Predicate<CapturedStatement> filter;
+
+        private StatementCountResultMatchers(String description, Predicate<CapturedStatement> filter) {
+            this.description = description;
+            this.filter = filter;
+        }
+
+        /**
+         * @param max the maximum number of statements.
+         * @return the matcher asserting that the request issued at most {@code max} statements.
+         */
+        public ResultMatcher atMost(int max) {
+            return matches("at most " + max, count -> count <= max);
+        }
+
+        /**
+         * @param expected the number of statements.
+         * @return the matcher asserting that the request issued exactly {@code expected} statements.
+         */
+        public ResultMatcher isEqualTo(int expected) {
+            return matches("exactly " + expected, count -> count == expected);
+        }
+
+        private ResultMatcher matches(String expectation, Predicate<Integer> condition) {
+            return result -> {
+                @SuppressWarnings("unchecked")
+                List<CapturedStatement> captured = (List<CapturedStatement>) result
+                    .getRequest()
+                    .getAttribute(StatementCounter.STATEMENTS_ATTRIBUTE);
+                if (captured == null) {
+                    throw new AssertionError("No statements were captured: is the test annotated with @CountStatements?");
+                }
+                List<CapturedStatement> statements = captured.stream().filter(filter).collect(Collectors.toList());
+                if (!condition.test(statements.size())) {
+                    throw new AssertionError(
+                        "Expected " +
+                        expectation +
+                        " " +
+                        description +
+                        " but the request issued " +
+                        statements.size() +
+                        ":\n" +
+                        statements.stream().map(CapturedStatement::toString).collect(Collectors.joining("\n"))
+                    );
+                }
+            };
+        }
+    }
+}
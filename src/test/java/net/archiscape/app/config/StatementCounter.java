@@ -0,0 +1,210 @@
+package net.archiscape.app.config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Captures the SQL statements issued by the current thread while a MockMvc request is performed, or between
+ * {@link #start()} and {@link #stop()}.
+ * <p>
+ * The statements of a request are stored in the {@link #STATEMENTS_ATTRIBUTE} attribute of the request. A batch counts
+ * as a single statement, as it is a single round trip to the database.
+ */
+public class StatementCounter implements QueryExecutionListener {
+
+    static final String STATEMENTS_ATTRIBUTE = StatementCounter.class.getName() + ".statements";
+
+    private static final String APPLICATION_PACKAGE = "net.archiscape.app.";
+
+    private static final int MAX_CALL_SITES = 3;
+
+    private final ThreadLocal<List<CapturedStatement>> statements = new ThreadLocal<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // the statements are captured once executed
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<CapturedStatement> captured = statements.get();
+        if (captured == null) {
+            return;
+        }
+        List<String> callSites = getCallSites();
+        for (QueryInfo queryInfo : queryInfoList) {
+            captured.add(new CapturedStatement(queryInfo.getQuery(), getParameters(queryInfo), callSites));
+        }
+    }
+
+    private static List<Object> getParameters(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return Collections.emptyList();
+        }
+        // the parameters of the first statement of a batch, by index
+        return queryInfo
+            .getParametersList()
+            .get(0)
+            .stream()
+            .sorted(Comparator.comparing((ParameterSetOperation operation) -> (Integer) operation.getArgs()[0]))
+            .map(operation -> "setNull".equals(operation.getMethod().getName()) ? null : operation.getArgs()[1])
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> getCallSites() {
+        return StackWalker
+            .getInstance()
+            .walk(frames ->
+                frames
+                    .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                    .filter(frame -> !frame.getClassName().contains("$$"))
+                    .filter(frame -> !frame.getClassName().startsWith(StatementCounter.class.getName()))
+                    .limit(MAX_CALL_SITES)
+                    .map(frame -> frame.toStackTraceElement().toString())
+                    .collect(Collectors.toList())
+            );
+    }
+
+    /**
+     * Captures the statements of the current thread until {@link #stop()}.
+     */
+    public void start() {
+        statements.set(new ArrayList<>());
+    }
+
+    /**
+     * @return the statements captured since {@link #start()}.
+     */
+    public List<CapturedStatement> stop() {
+        List<CapturedStatement> captured = statements.get();
+        statements.remove();
+        return captured == null ? Collections.emptyList() : Collections.unmodifiableList(captured);
+    }
+
+    /**
+     * A statement, with its parameters and the methods of the application it was issued from, innermost first.
+     */
+    public static class CapturedStatement {
+
+        private final String sql;
+
+        private final QueryType type;
+
+        private final List<Object> parameters;
+
+        private final List<String> callSites;
+
+        CapturedStatement(String sql, List<Object> parameters, List<String> callSites) {
+            this.sql = sql;
+            this.type = QueryUtils.getQueryType(sql);
+            this.parameters = parameters;
+            this.callSites = callSites;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public QueryType getType() {
+            return type;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        public List<String> getCallSites() {
+            return callSites;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return type + " " + sql + "\n        at " + String.join("\n        at ", callSites);
+        }
+    }
+
+    /**
+     * Wraps the data source with the counter, and captures the statements of each MockMvc request.
+     */
+    @TestConfiguration
+    static class CountingConfiguration {
+
+        private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+        @Bean
+        public StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        public static BeanPostProcessor statementCounterDataSourcePostProcessor(ObjectProvider<StatementCounter> statementCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!DATA_SOURCE_BEAN_NAME.equals(beanName) || !(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    if (bean instanceof ProxyDataSource) {
+                        ((ProxyDataSource) bean).getProxyConfig().getQueryListener().addListener(statementCounter.getObject());
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create((DataSource) bean).name(beanName).listener(statementCounter.getObject()).build();
+                }
+            };
+        }
+
+        /**
+         * Adds the capturing filter first, so that the statements of the security filters are counted too.
+         */
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public MockMvcBuilderCustomizer statementCounterMockMvcBuilderCustomizer(StatementCounter statementCounter) {
+            return builder -> builder.addFilters(new CapturingFilter(statementCounter));
+        }
+    }
+
+    private static class CapturingFilter implements Filter {
+
+        private final StatementCounter statementCounter;
+
+        private CapturingFilter(StatementCounter statementCounter) {
+            this.statementCounter = statementCounter;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            statementCounter.start();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                request.setAttribute(STATEMENTS_ATTRIBUTE, statementCounter.stop());
+            }
+        }
+    }
+}
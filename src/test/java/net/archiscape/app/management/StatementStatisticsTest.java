@@ -0,0 +1,92 @@
+package net.archiscape.app.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import net.archiscape.app.config.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementStatisticsTest {
+
+    private MeterRegistry meterRegistry;
+
+    private StatementStatistics statementStatistics;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getPersistenceMetrics().setSlowStatementThresholdInMillis(100);
+        applicationProperties.getPersistenceMetrics().setMaxStatements(2);
+        statementStatistics = new StatementStatistics(meterRegistry, applicationProperties);
+    }
+
+    @Test
+    void testShapeReducesLiteralsAndInLists() {
+        assertThat(StatementStatistics.shapeOf("select * from jhi_user\n  where login = 'admin' and id in (?, ?, ?) limit 10"))
+            .isEqualTo("select * from jhi_user where login = ? and id in (?) limit ?");
+        assertThat(StatementStatistics.shapeOf("select user0_.id from jhi_user user0_ where user0_.id=?"))
+            .isEqualTo("select user0_.id from jhi_user user0_ where user0_.id=?");
+    }
+
+    @Test
+    void testTopStatementsAreSortedByTotalTime() {
+        statementStatistics.record("select 1 from jhi_user where id in (?, ?)", 30, "UserRepository.findAllById");
+        statementStatistics.record("select 1 from jhi_user where id in (?)", 30, "UserRepository.findAllById");
+        statementStatistics.record("select 1 from jhi_authority", 50, null);
+
+        List<StatementStatistics.StatementSummary> statements = statementStatistics.getTopStatements(10);
+
+        assertThat(statements).extracting(StatementStatistics.StatementSummary::getSql).containsExactly(
+            "select ? from jhi_user where id in (?)",
+            "select ? from jhi_authority"
+        );
+        assertThat(statements.get(0).getCount()).isEqualTo(2);
+        assertThat(statements.get(0).getTotalTimeInMillis()).isEqualTo(60);
+        assertThat(statements.get(0).getMeanTimeInMillis()).isEqualTo(30);
+        assertThat(statements.get(0).getRepositoryMethods()).containsExactly("UserRepository.findAllById");
+        assertThat(statements.get(1).getRepositoryMethods()).isEmpty();
+        assertThat(statementStatistics.getTopStatements(1)).hasSize(1);
+    }
+
+    @Test
+    void testSlowStatementsAreCountedByRepositoryMethod() {
+        statementStatistics.record("select * from jhi_user where login = ?", 150, "UserRepository.findOneByLogin");
+        statementStatistics.record("select * from jhi_user where login = ?", 20, "UserRepository.findOneByLogin");
+        statementStatistics.record("delete from jhi_user", 200, null);
+
+        assertThat(
+            meterRegistry
+                .get(StatementStatistics.SLOW_STATEMENTS_METER_NAME)
+                .tag(StatementStatistics.SLOW_STATEMENTS_METER_REPOSITORY_METHOD_DIMENSION, "UserRepository.findOneByLogin")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+        assertThat(
+            meterRegistry
+                .get(StatementStatistics.SLOW_STATEMENTS_METER_NAME)
+                .tag(StatementStatistics.SLOW_STATEMENTS_METER_REPOSITORY_METHOD_DIMENSION, "none")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+        assertThat(statementStatistics.getTopStatements(10).get(0).getSlowCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testStatementsAreBounded() {
+        statementStatistics.record("select * from jhi_user", 1, null);
+        statementStatistics.record("select * from jhi_authority", 1, null);
+        statementStatistics.record("select * from jhi_user_authority", 1, null);
+
+        assertThat(statementStatistics.getTopStatements(10)).hasSize(2);
+
+        statementStatistics.reset();
+
+        assertThat(statementStatistics.getTopStatements(10)).isEmpty();
+    }
+}
@@ -0,0 +1,125 @@
+package net.archiscape.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.config.CountStatements;
+import net.archiscape.app.config.StatementCounter;
+import net.archiscape.app.config.StatementCounter.CapturedStatement;
+import net.archiscape.app.domain.User;
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests checking with the H2 {@code EXPLAIN} plans that the lookups of {@link UserRepository} use an index.
+ * <p>
+ * The statement generated by each lookup is captured, then explained with its parameters. H2 names the index used by a
+ * plan in a comment, and shows {@code tableScan} instead when the whole table is read.
+ */
+@IntegrationTest
+@CountStatements
+@Transactional
+class UserRepositoryIndexIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assertThatFindOneByActivationKeyUsesAnIndex() {
+        assertThat(explainLookup(() -> userRepository.findOneByActivationKey("activation-key")))
+            .contains("IDX_USER_ACTIVATION_KEY")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatFindOneByResetKeyUsesAnIndex() {
+        assertThat(explainLookup(() -> userRepository.findOneByResetKey("reset-key")))
+            .contains("IDX_USER_RESET_KEY")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatFindOneByEmailIgnoreCaseUsesAnIndex() {
+        assertThat(explainLookup(() -> userRepository.findOneByEmailIgnoreCase("Admin@Localhost")))
+            .contains("IDX_USER_NORMALIZED_EMAIL")
+            .doesNotContain("tableScan");
+        assertThat(explainLookup(() -> userRepository.findOneWithAuthoritiesByEmailIgnoreCase("Admin@Localhost")))
+            .contains("IDX_USER_NORMALIZED_EMAIL")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatFindOneByLoginUsesAnIndex() {
+        assertThat(explainLookup(() -> userRepository.findOneByLogin("admin"))).doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatNotActivatedUsersLookupUsesAnIndex() {
+        String plan = explainLookup(() ->
+            userRepository.findAllIdsByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now(), PageRequest.ofSize(10))
+        );
+
+        assertThat(plan).contains("IDX_USER_ACTIVATED_CREATED_DATE").doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatLowerEmailComparisonDoesNotUseAnIndex() {
+        // the reason for the normalized email column
+        assertThat(explain("select id from jhi_user where lower(email) = ?", "admin@localhost")).contains("tableScan");
+    }
+
+    @Test
+    void assertThatFindOneByEmailIgnoreCaseFindsAnyCase() {
+        assertThat(userRepository.findOneByEmailIgnoreCase("ADMIN@localhost")).map(User::getLogin).contains("admin");
+        assertThat(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("Admin@Localhost")).map(User::getLogin).contains("admin");
+    }
+
+    @Test
+    void assertThatNormalizedEmailFollowsEmail() {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        user.setEmail("John.Doe@Example.com");
+        userRepository.saveAndFlush(user);
+
+        String normalizedEmail = jdbcTemplate.queryForObject(
+            "select normalized_email from jhi_user where login = ?",
+            String.class,
+            "user"
+        );
+        assertThat(normalizedEmail).isEqualTo("john.doe@example.com");
+        assertThat(userRepository.findOneByEmailIgnoreCase("JOHN.DOE@example.com")).map(User::getLogin).contains("user");
+    }
+
+    /**
+     * Explains the single statement issued by a lookup.
+     */
+    private String explainLookup(Runnable lookup) {
+        List<CapturedStatement> statements;
+        statementCounter.start();
+        try {
+            lookup.run();
+        } finally {
+            statements = statementCounter.stop();
+        }
+        assertThat(statements).hasSize(1);
+        CapturedStatement statement = statements.get(0);
+        assertThat(statement.getType()).isEqualTo(QueryType.SELECT);
+        assertThat(statement.getSql()).contains("jhi_user");
+        return explain(statement.getSql(), statement.getParameters().toArray());
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, args);
+    }
+}
@@ -0,0 +1,105 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.management.SecurityMetersService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AuthenticationRateLimiter}.
+ */
+class AuthenticationRateLimiterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private AuthenticationRateLimiter authenticationRateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Security.RateLimit rateLimit = applicationProperties.getSecurity().getRateLimit();
+        rateLimit.setEnabled(true);
+        rateLimit.getAuthentication().getPerLogin().setCapacity(2);
+        rateLimit.getAuthentication().getPerIp().setCapacity(3);
+        rateLimit.getPasswordReset().getPerLogin().setCapacity(1);
+        rateLimit.getPasswordReset().getPerIp().setCapacity(2);
+        authenticationRateLimiter = new AuthenticationRateLimiter(applicationProperties, new SecurityMetersService(meterRegistry));
+    }
+
+    @Test
+    void testAuthenticationIsLimitedByLogin() {
+        authenticationRateLimiter.checkAuthentication("john", "10.0.0.1");
+        authenticationRateLimiter.checkAuthentication(" John ", "10.0.0.2");
+
+        assertThatThrownBy(() -> authenticationRateLimiter.checkAuthentication("JOHN", "10.0.0.3"))
+            .isInstanceOf(RateLimitExceededException.class)
+            .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAfterSeconds()).isBetween(1L, 30L));
+        assertThat(rateLimitedCount("authenticate", "login")).isEqualTo(1);
+        assertThat(rateLimitedCount("authenticate", "ip")).isZero();
+    }
+
+    @Test
+    void testAuthenticationIsLimitedByIp() {
+        for (int i = 0; i < 3; i++) {
+            authenticationRateLimiter.checkAuthentication("user-" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> authenticationRateLimiter.checkAuthentication("jane", "10.0.0.1"))
+            .isInstanceOf(RateLimitExceededException.class);
+        assertThat(rateLimitedCount("authenticate", "ip")).isEqualTo(1);
+        assertThat(rateLimitedCount("authenticate", "login")).isZero();
+    }
+
+    @Test
+    void testPasswordResetIsLimitedByLogin() {
+        authenticationRateLimiter.checkPasswordReset("john@localhost", "10.0.0.1");
+
+        assertThatThrownBy(() -> authenticationRateLimiter.checkPasswordReset("John@Localhost", "10.0.0.2"))
+            .isInstanceOf(RateLimitExceededException.class);
+        assertThat(rateLimitedCount("password-reset", "login")).isEqualTo(1);
+        assertThat(rateLimitedCount("password-reset", "ip")).isZero();
+    }
+
+    @Test
+    void testPasswordResetIsLimitedByIp() {
+        authenticationRateLimiter.checkPasswordReset("john@localhost", "10.0.0.1");
+        authenticationRateLimiter.checkPasswordReset("jane@localhost", "10.0.0.1");
+
+        assertThatThrownBy(() -> authenticationRateLimiter.checkPasswordReset("jim@localhost", "10.0.0.1"))
+            .isInstanceOf(RateLimitExceededException.class);
+        assertThat(rateLimitedCount("password-reset", "ip")).isEqualTo(1);
+        assertThat(rateLimitedCount("password-reset", "login")).isZero();
+    }
+
+    @Test
+    void testNothingIsLimitedWhenDisabled() {
+        applicationProperties.getSecurity().getRateLimit().setEnabled(false);
+        authenticationRateLimiter = new AuthenticationRateLimiter(applicationProperties, new SecurityMetersService(meterRegistry));
+
+        assertThatCode(() -> {
+                for (int i = 0; i < 10; i++) {
+                    authenticationRateLimiter.checkAuthentication("john", "10.0.0.1");
+                    authenticationRateLimiter.checkPasswordReset("john@localhost", "10.0.0.1");
+                }
+            })
+            .doesNotThrowAnyException();
+    }
+
+    private double rateLimitedCount(String endpoint, String key) {
+        return meterRegistry
+            .get(SecurityMetersService.RATE_LIMITED_METER_NAME)
+            .tag(SecurityMetersService.RATE_LIMITED_METER_ENDPOINT_DIMENSION, endpoint)
+            .tag(SecurityMetersService.RATE_LIMITED_METER_KEY_DIMENSION, key)
+            .counter()
+            .count();
+    }
+}
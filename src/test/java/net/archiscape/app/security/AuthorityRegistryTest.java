@@ -0,0 +1,157 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.repository.AuthorityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Unit tests for {@link AuthorityRegistry}.
+ */
+class AuthorityRegistryTest {
+
+    private AuthorityRepository authorityRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    public void setup() {
+        authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(authorities(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+    }
+
+    @Test
+    void testLoadsSortedNamesOnce() {
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testDoesNotKeepEmptyAuthorities() {
+        when(authorityRepository.findAll()).thenReturn(Collections.emptyList());
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+        assertThat(authorityRegistry.getNames()).isEmpty();
+
+        when(authorityRepository.findAll()).thenReturn(authorities(AuthoritiesConstants.USER));
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testBacksOffAfterAFailedLoad() {
+        when(authorityRepository.findAll()).thenThrow(new DataAccessResourceFailureException("Database unreachable"));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+
+        assertThat(authorityRegistry.getNames()).isEmpty();
+        assertThat(authorityRegistry.encode(List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)))).isNull();
+        assertThat(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER).getAuthority()).isEqualTo(AuthoritiesConstants.USER);
+
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testFindAuthority() {
+        assertThat(authorityRegistry.findAuthority(AuthoritiesConstants.ADMIN))
+            .map(Authority::getName)
+            .contains(AuthoritiesConstants.ADMIN);
+        assertThat(authorityRegistry.findAuthority("ROLE_UNKNOWN")).isEmpty();
+
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testRefreshKeepsUnchangedAuthorities() {
+        List<String> names = authorityRegistry.getNames();
+
+        authorityRegistry.refresh();
+        assertThat(authorityRegistry.getNames()).isSameAs(names);
+
+        when(authorityRepository.findAll()).thenReturn(Collections.emptyList());
+        authorityRegistry.refresh();
+        assertThat(authorityRegistry.getNames()).isSameAs(names);
+
+        when(authorityRepository.findAll()).thenReturn(authorities(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN, "ROLE_AUDITOR"));
+        authorityRegistry.refresh();
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN, "ROLE_AUDITOR", AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.findAuthority("ROLE_AUDITOR")).isPresent();
+    }
+
+    @Test
+    void testGrantedAuthoritiesAreShared() {
+        GrantedAuthority admin = authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ADMIN);
+
+        assertThat(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ADMIN)).isSameAs(admin);
+        assertThat(authorityRegistry.fromNames(AuthoritiesConstants.USER + "," + AuthoritiesConstants.ADMIN))
+            .containsExactly(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER), admin);
+        assertThat(authorityRegistry.getGrantedAuthority("ROLE_UNKNOWN").getAuthority()).isEqualTo("ROLE_UNKNOWN");
+    }
+
+    @Test
+    void testFromNamesIgnoresBlankNames() {
+        assertThat(authorityRegistry.fromNames("")).isEmpty();
+        assertThat(authorityRegistry.fromNames(AuthoritiesConstants.USER + ", ,"))
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testEncodeAndDecode() {
+        String claim = authorityRegistry.encode(List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+
+        assertThat(authorityRegistry.decode(claim)).containsExactly(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER));
+        assertThat(authorityRegistry.decode(claim)).isSameAs(authorityRegistry.decode(claim));
+        assertThat(authorityRegistry.decode(authorityRegistry.encode(Collections.emptyList()))).isEmpty();
+    }
+
+    @Test
+    void testEncodeReturnsNullForUnknownAuthority() {
+        assertThat(authorityRegistry.encode(List.of(new SimpleGrantedAuthority("ROLE_UNKNOWN")))).isNull();
+    }
+
+    @Test
+    void testDecodeRejectsClaimOfOtherAuthorities() {
+        String claim = authorityRegistry.encode(List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+
+        when(authorityRepository.findAll()).thenReturn(authorities(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN, "ROLE_AUDITOR"));
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.decode(claim)).isNull();
+    }
+
+    @Test
+    void testDecodeRejectsMalformedClaim() {
+        String claim = authorityRegistry.encode(List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        String fingerprint = claim.substring(0, claim.indexOf(':'));
+
+        assertThat(authorityRegistry.decode("")).isNull();
+        assertThat(authorityRegistry.decode(fingerprint)).isNull();
+        assertThat(authorityRegistry.decode(fingerprint + ":not-a-number")).isNull();
+        assertThat(authorityRegistry.decode(fingerprint + ":" + Long.toString(0b100, Character.MAX_RADIX))).isNull();
+    }
+
+    private static List<Authority> authorities(String... names) {
+        List<Authority> authorities = new ArrayList<>();
+        for (String name : names) {
+            Authority authority = new Authority();
+            authority.setName(name);
+            authorities.add(authority);
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,47 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BloomFilter}.
+ */
+class BloomFilterTest {
+
+    @Test
+    void testContainsEveryPutValue() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("user-" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(bloomFilter.mightContain("user-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void testFalsePositivesStayNearTheConfiguredProbability() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("user-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(500);
+    }
+
+    @Test
+    void testEmptyFilterContainsNothing() {
+        BloomFilter bloomFilter = new BloomFilter(10, 0.01);
+
+        assertThat(bloomFilter.mightContain("user")).isFalse();
+        assertThat(bloomFilter.mightContain("")).isFalse();
+    }
+}
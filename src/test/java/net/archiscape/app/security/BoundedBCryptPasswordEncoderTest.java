@@ -0,0 +1,57 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.archiscape.app.config.ApplicationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Unit tests for {@link BoundedBCryptPasswordEncoder}.
+ */
+class BoundedBCryptPasswordEncoderTest {
+
+    private BoundedBCryptPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setup() {
+        passwordEncoder = new BoundedBCryptPasswordEncoder(5, new ApplicationProperties().getSecurity().getPasswordHashing());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void testEncodesAndMatchesWithConfiguredStrength() {
+        String encodedPassword = passwordEncoder.encode("password");
+
+        assertThat(encodedPassword).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("other-password", encodedPassword)).isFalse();
+    }
+
+    @Test
+    void testUpgradesHashesMadeWithAnotherStrength() {
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password"))).isFalse();
+    }
+
+    @Test
+    void testReadsStrengthOfBCryptHashesOnly() {
+        assertThat(BoundedBCryptPasswordEncoder.strengthOf("$2a$10$gSAhZrxMllrbgj/kkK9UceBPpChGWJA7SYIb1Mqo.n5aNLq1/oRrC")).isEqualTo(10);
+        assertThat(BoundedBCryptPasswordEncoder.strengthOf("$2y$12$gSAhZrxMllrbgj/kkK9UceBPpChGWJA7SYIb1Mqo.n5aNLq1/oRrC")).isEqualTo(12);
+        assertThat(BoundedBCryptPasswordEncoder.strengthOf("not-a-bcrypt-hash")).isEqualTo(-1);
+        assertThat(BoundedBCryptPasswordEncoder.strengthOf(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        assertThat(BCryptStrengthCalibrator.calibrate(0, 4, 6)).isEqualTo(4);
+        assertThat(BCryptStrengthCalibrator.calibrate(60_000, 4, 6)).isBetween(4, 6);
+    }
+}
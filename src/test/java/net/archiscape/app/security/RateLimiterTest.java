@@ -0,0 +1,101 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RateLimiter}.
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        rateLimiter = new RateLimiter(3, 60, 1600, clock::get);
+    }
+
+    @Test
+    void testAllowsBurstUpToCapacity() {
+        assertThat(rateLimiter.tryAcquire("john")).isZero();
+        assertThat(rateLimiter.tryAcquire("john")).isZero();
+        assertThat(rateLimiter.tryAcquire("john")).isZero();
+
+        long wait = rateLimiter.tryAcquire("john");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(20));
+    }
+
+    @Test
+    void testRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("john");
+        }
+        assertThat(rateLimiter.tryAcquire("john")).isPositive();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertThat(rateLimiter.tryAcquire("john")).isZero();
+        assertThat(rateLimiter.tryAcquire("john")).isPositive();
+    }
+
+    @Test
+    void testLimitsKeysIndependently() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("john");
+        }
+
+        assertThat(rateLimiter.tryAcquire("john")).isPositive();
+        assertThat(rateLimiter.tryAcquire("jane")).isZero();
+    }
+
+    @Test
+    void testEvictsIdleBucketsToStayBounded() {
+        rateLimiter = new RateLimiter(3, 60, 16, clock::get);
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.tryAcquire("user-" + i);
+        }
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(16);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 100; i < 200; i++) {
+            rateLimiter.tryAcquire("user-" + i);
+        }
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void testLimitsNewKeysWhenSaturated() {
+        rateLimiter = new RateLimiter(3, 60, 16, clock::get);
+        // no bucket is idle
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.tryAcquire("user-" + i);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("john")).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("john")).isPositive();
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void testKeepsTheBucketsOfLimitedKeysWhenSaturated() {
+        rateLimiter = new RateLimiter(3, 60, 16, clock::get);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("john");
+        }
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.tryAcquire("user-" + i);
+        }
+
+        assertThat(rateLimiter.tryAcquire("john")).isPositive();
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(16);
+    }
+}
@@ -0,0 +1,94 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.TokenRevocation;
+import net.archiscape.app.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link TokenRevocationList}.
+ */
+class TokenRevocationListTest {
+
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    public void setup() {
+        tokenRevocationRepository = mock(TokenRevocationRepository.class);
+        tokenRevocationList = new TokenRevocationList(tokenRevocationRepository, new ApplicationProperties(), new JHipsterProperties());
+    }
+
+    @Test
+    void testRevokeStoresRevocationAndRevokesOlderTokens() {
+        long issuedBefore = Instant.now().minusSeconds(10).getEpochSecond();
+
+        tokenRevocationList.revoke("user");
+
+        verify(tokenRevocationRepository).save(any(TokenRevocation.class));
+        assertThat(tokenRevocationList.isRevoked("user", issuedBefore)).isTrue();
+        assertThat(tokenRevocationList.isRevoked("user", Instant.now().plusSeconds(1).getEpochSecond())).isFalse();
+        assertThat(tokenRevocationList.isRevoked("other", issuedBefore)).isFalse();
+    }
+
+    @Test
+    void testRefreshAppliesRevocationsOfOtherNodes() {
+        Instant revokedAt = Instant.now().minusSeconds(10);
+        when(tokenRevocationRepository.findAllByRevokedAtGreaterThanEqual(any())).thenReturn(List.of(revocation("user", revokedAt)));
+
+        tokenRevocationList.refresh();
+
+        assertThat(tokenRevocationList.isRevoked("user", revokedAt.minusSeconds(1).getEpochSecond())).isTrue();
+        assertThat(tokenRevocationList.isRevoked("user", revokedAt.getEpochSecond())).isFalse();
+    }
+
+    @Test
+    void testKeepsLatestRevocation() {
+        Instant older = Instant.now().minus(1, ChronoUnit.HOURS);
+        Instant newer = Instant.now().minusSeconds(10);
+        when(tokenRevocationRepository.findAllByRevokedAtGreaterThanEqual(any()))
+            .thenReturn(List.of(revocation("user", newer), revocation("user", older)));
+
+        tokenRevocationList.refresh();
+
+        assertThat(tokenRevocationList.isRevoked("user", older.plusSeconds(60).getEpochSecond())).isTrue();
+    }
+
+    @Test
+    void testRemoveExpiredRevocationsForgetsExpiredLogins() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setTokenValidityInSeconds(60);
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setTokenValidityInSecondsForRememberMe(3600);
+        tokenRevocationList = new TokenRevocationList(tokenRevocationRepository, new ApplicationProperties(), jHipsterProperties);
+        Instant expired = Instant.now().minus(2, ChronoUnit.HOURS);
+        Instant recent = Instant.now().minusSeconds(10);
+        when(tokenRevocationRepository.findAllByRevokedAtGreaterThanEqual(any()))
+            .thenReturn(List.of(revocation("expired", expired), revocation("recent", recent)));
+        tokenRevocationList.refresh();
+
+        tokenRevocationList.removeExpiredRevocations();
+
+        verify(tokenRevocationRepository).deleteAllByRevokedAtBefore(any());
+        assertThat(tokenRevocationList.isRevoked("expired", 0)).isFalse();
+        assertThat(tokenRevocationList.isRevoked("recent", 0)).isTrue();
+    }
+
+    private static TokenRevocation revocation(String login, Instant revokedAt) {
+        TokenRevocation tokenRevocation = new TokenRevocation();
+        tokenRevocation.setLogin(login);
+        tokenRevocation.setRevokedAt(revokedAt);
+        return tokenRevocation;
+    }
+}
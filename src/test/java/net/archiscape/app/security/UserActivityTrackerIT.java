@@ -0,0 +1,119 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.repository.projection.ManagedUserView;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Integration tests for {@link UserActivityTracker}.
+ * <p>
+ * The activities being written in their own transactions, the tests run without a transaction of their own.
+ */
+@IntegrationTest
+class UserActivityTrackerIT {
+
+    private static final String PASSWORD = "activity-password";
+
+    @Autowired
+    private UserActivityTracker userActivityTracker;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        userActivityTracker.flush();
+        user = new User();
+        user.setLogin("activity-" + RandomStringUtils.randomAlphabetic(5).toLowerCase());
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setActivated(true);
+        user.setEmail(user.getLogin() + "@localhost");
+        user.setLangKey("en");
+        user = userRepository.saveAndFlush(user);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        userActivityTracker.flush();
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void assertThatActivitiesAreWrittenOnFlush() {
+        Instant before = Instant.now();
+        userActivityTracker.recordLogin(user.getLogin());
+        userActivityTracker.recordSeen(user.getLogin());
+        userActivityTracker.recordSeen(user.getLogin());
+        assertThat(userActivityTracker.getPendingCount()).isEqualTo(1);
+
+        userActivityTracker.flush();
+
+        assertThat(userActivityTracker.getPendingCount()).isZero();
+        ManagedUserView view = findView();
+        assertThat(view.getLastLoginDate()).isAfterOrEqualTo(before.truncatedTo(ChronoUnit.MILLIS));
+        assertThat(view.getLastSeenDate()).isAfterOrEqualTo(view.getLastLoginDate());
+        // the activity is not a modification of the user
+        assertThat(userRepository.findOneByLogin(user.getLogin()))
+            .get()
+            .extracting(User::getVersion)
+            .isEqualTo(user.getVersion());
+    }
+
+    @Test
+    void assertThatRequestsKeepTheLastLoginDate() {
+        userActivityTracker.recordLogin(user.getLogin());
+        userActivityTracker.flush();
+        Instant lastLoginDate = findView().getLastLoginDate();
+
+        userActivityTracker.recordSeen(user.getLogin());
+        userActivityTracker.flush();
+
+        ManagedUserView view = findView();
+        assertThat(view.getLastLoginDate()).isEqualTo(lastLoginDate);
+        assertThat(view.getLastSeenDate()).isAfterOrEqualTo(lastLoginDate);
+    }
+
+    @Test
+    void assertThatSuccessfulAuthenticationsAreRecorded() {
+        authenticationManagerBuilder.getObject().authenticate(new UsernamePasswordAuthenticationToken(user.getLogin(), PASSWORD));
+
+        userActivityTracker.flush();
+
+        assertThat(findView().getLastLoginDate()).isNotNull();
+    }
+
+    @Test
+    void assertThatUsersWithoutActivityHaveNoDates() {
+        ManagedUserView view = findView();
+        assertThat(view.getLastLoginDate()).isNull();
+        assertThat(view.getLastSeenDate()).isNull();
+    }
+
+    private ManagedUserView findView() {
+        List<ManagedUserView> views = userRepository.findAllManagedUserViewsByIdIn(List.of(user.getId()));
+        assertThat(views).hasSize(1);
+        return views.get(0);
+    }
+}
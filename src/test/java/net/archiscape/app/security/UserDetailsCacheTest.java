@@ -0,0 +1,112 @@
+package net.archiscape.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import net.archiscape.app.config.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Unit tests for {@link UserDetailsCache}.
+ */
+class UserDetailsCacheTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private UserCacheEvictionChannel evictionChannel;
+
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        evictionChannel = new InProcessUserCacheEvictionChannel();
+        userDetailsCache = new UserDetailsCache(applicationProperties, evictionChannel);
+    }
+
+    @Test
+    void testReturnsFreshCopyOfCachedDetails() {
+        userDetailsCache.put("john", createUserDetails("john"), userDetailsCache.generation());
+
+        User first = (User) userDetailsCache.get("john");
+        first.eraseCredentials();
+        UserDetails second = userDetailsCache.get("john");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getUsername()).isEqualTo("john");
+        assertThat(second.getPassword()).isEqualTo("hash-of-john");
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testEvictionThroughChannelRemovesEveryKeyOfUser() {
+        userDetailsCache.put("john", createUserDetails("john"), userDetailsCache.generation());
+        userDetailsCache.put("john@localhost", createUserDetails("john"), userDetailsCache.generation());
+        userDetailsCache.put("jane", createUserDetails("jane"), userDetailsCache.generation());
+
+        evictionChannel.publish("john");
+
+        assertThat(userDetailsCache.get("john")).isNull();
+        assertThat(userDetailsCache.get("john@localhost")).isNull();
+        assertThat(userDetailsCache.get("jane")).isNotNull();
+    }
+
+    @Test
+    void testEvictionAfterCommitWaitsForTheCommit() {
+        userDetailsCache.put("john", createUserDetails("john"), userDetailsCache.generation());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            evictionChannel.publishAfterCommit("john");
+            assertThat(userDetailsCache.get("john")).isNotNull();
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(userDetailsCache.get("john")).isNull();
+    }
+
+    @Test
+    void testDoesNotCacheDetailsLoadedBeforeEviction() {
+        long generation = userDetailsCache.generation();
+        userDetailsCache.evict("john");
+
+        userDetailsCache.put("john", createUserDetails("john"), generation);
+
+        assertThat(userDetailsCache.get("john")).isNull();
+    }
+
+    @Test
+    void testStaysBounded() {
+        applicationProperties.getSecurity().getUserDetailsCache().setMaxSize(1);
+        userDetailsCache = new UserDetailsCache(applicationProperties, evictionChannel);
+
+        userDetailsCache.put("john", createUserDetails("john"), userDetailsCache.generation());
+        userDetailsCache.put("jane", createUserDetails("jane"), userDetailsCache.generation());
+
+        assertThat(userDetailsCache.size()).isEqualTo(1);
+        assertThat(userDetailsCache.get("jane")).isNull();
+    }
+
+    @Test
+    void testDoesNothingWhenDisabled() {
+        applicationProperties.getSecurity().getUserDetailsCache().setEnabled(false);
+        userDetailsCache = new UserDetailsCache(applicationProperties, evictionChannel);
+
+        userDetailsCache.put("john", createUserDetails("john"), userDetailsCache.generation());
+
+        assertThat(userDetailsCache.get("john")).isNull();
+    }
+
+    private static UserDetails createUserDetails(String login) {
+        return new User(login, "hash-of-" + login, Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+    }
+}
@@ -1,13 +1,23 @@
 package net.archiscape.app.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
+import net.archiscape.app.config.ApplicationProperties;
 import net.archiscape.app.management.SecurityMetersService;
+import net.archiscape.app.repository.AuthorityRepository;
+import net.archiscape.app.repository.TokenRevocationRepository;
 import net.archiscape.app.security.AuthoritiesConstants;
+import net.archiscape.app.security.AuthorityRegistry;
+import net.archiscape.app.security.TokenRevocationList;
+import net.archiscape.app.security.UserActivityTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
@@ -24,6 +34,8 @@ class JWTFilterTest {
 
     private TokenProvider tokenProvider;
 
+    private UserActivityTracker userActivityTracker;
+
     private JWTFilter jwtFilter;
 
     @BeforeEach
@@ -34,11 +46,18 @@ class JWTFilterTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class)),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        userActivityTracker = mock(UserActivityTracker.class);
+        jwtFilter = new JWTFilter(tokenProvider, userActivityTracker);
         SecurityContextHolder.getContext().setAuthentication(null);
     }
 
@@ -59,6 +78,7 @@ class JWTFilterTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("test-user");
         assertThat(SecurityContextHolder.getContext().getAuthentication().getCredentials()).hasToString(jwt);
+        verify(userActivityTracker).recordSeen("test-user");
     }
 
     @Test
@@ -72,6 +92,7 @@ class JWTFilterTest {
         jwtFilter.doFilter(request, response, filterChain);
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userActivityTracker, never()).recordSeen(any());
     }
 
     @Test
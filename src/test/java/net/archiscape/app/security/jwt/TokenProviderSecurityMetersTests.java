@@ -1,6 +1,7 @@
 package net.archiscape.app.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -13,8 +14,13 @@ import java.security.Key;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import net.archiscape.app.config.ApplicationProperties;
 import net.archiscape.app.management.SecurityMetersService;
+import net.archiscape.app.repository.AuthorityRepository;
+import net.archiscape.app.repository.TokenRevocationRepository;
 import net.archiscape.app.security.AuthoritiesConstants;
+import net.archiscape.app.security.AuthorityRegistry;
+import net.archiscape.app.security.TokenRevocationList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -43,7 +49,13 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class)),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
         Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
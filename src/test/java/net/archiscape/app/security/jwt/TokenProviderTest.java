@@ -1,6 +1,8 @@
 package net.archiscape.app.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -10,8 +12,14 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.Authority;
 import net.archiscape.app.management.SecurityMetersService;
+import net.archiscape.app.repository.AuthorityRepository;
+import net.archiscape.app.repository.TokenRevocationRepository;
 import net.archiscape.app.security.AuthoritiesConstants;
+import net.archiscape.app.security.AuthorityRegistry;
+import net.archiscape.app.security.TokenRevocationList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -36,7 +44,13 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class)),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -88,6 +102,151 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testGetVerifiedAuthenticationReturnsAuthenticationOfValidToken() {
+        Authentication authentication = createAuthentication();
+        String token = tokenProvider.createToken(authentication, false);
+
+        Optional<Authentication> verified = tokenProvider.getVerifiedAuthentication(token);
+
+        assertThat(verified).isPresent();
+        assertThat(verified.get().getName()).isEqualTo("anonymous");
+        assertThat(verified.get().getCredentials()).hasToString(token);
+        assertThat(verified.get().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testGetVerifiedAuthenticationReusesCachedAuthentication() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication first = tokenProvider.getVerifiedAuthentication(token).orElseThrow();
+        Authentication second = tokenProvider.getVerifiedAuthentication(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void testGetVerifiedAuthenticationDoesNotCacheWhenDisabled() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getTokenCache().setEnabled(false);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new SecurityMetersService(new SimpleMeterRegistry()),
+            new AuthorityRegistry(mock(AuthorityRepository.class)),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication first = tokenProvider.getVerifiedAuthentication(token).orElseThrow();
+        Authentication second = tokenProvider.getVerifiedAuthentication(token).orElseThrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo(first.getName());
+    }
+
+    @Test
+    void testGetVerifiedAuthenticationIsEmptyWhenJWTisExpired() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.getVerifiedAuthentication(token)).isEmpty();
+    }
+
+    @Test
+    void testGetVerifiedAuthenticationIsEmptyWhenJWThasInvalidSignature() {
+        assertThat(tokenProvider.getVerifiedAuthentication(createTokenWithDifferentSignature())).isEmpty();
+    }
+
+    @Test
+    void testGetVerifiedAuthenticationIsEmptyWhenJWTisRevoked() {
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(
+            mock(TokenRevocationRepository.class),
+            new ApplicationProperties(),
+            new JHipsterProperties()
+        );
+        ReflectionTestUtils.setField(tokenProvider, "tokenRevocationList", tokenRevocationList);
+        String token = createTokenIssuedAt(new Date(System.currentTimeMillis() - ONE_MINUTE));
+        String legacyToken = createTokenIssuedAt(null);
+        assertThat(tokenProvider.getVerifiedAuthentication(token)).isPresent();
+
+        tokenRevocationList.revoke("anonymous");
+
+        assertThat(tokenProvider.getVerifiedAuthentication(token)).isEmpty();
+        assertThat(tokenProvider.getVerifiedAuthentication(legacyToken)).isEmpty();
+        assertThat(tokenProvider.getVerifiedAuthentication(tokenProvider.createToken(createAuthentication(), false))).isPresent();
+    }
+
+    @Test
+    void testCompactAuthoritiesAreDecodedToSharedInstances() {
+        AuthorityRegistry authorityRegistry = createAuthorityRegistry(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        TokenProvider tokenProvider = createTokenProvider(true, authorityRegistry);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "admin",
+            "admin",
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))
+        );
+        String token = tokenProvider.createToken(authentication, false);
+
+        Authentication verified = tokenProvider.getVerifiedAuthentication(token).orElseThrow();
+
+        assertThat(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody())
+            .containsKey("authz")
+            .doesNotContainKey("auth");
+        assertThat(verified.getName()).isEqualTo("admin");
+        assertThat(verified.getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(verified.getAuthorities()).allMatch(a -> a == authorityRegistry.getGrantedAuthority(a.getAuthority()));
+    }
+
+    @Test
+    void testLegacyAuthoritiesAreAcceptedWithCompactEncoding() {
+        AuthorityRegistry authorityRegistry = createAuthorityRegistry(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        String legacyToken = createTokenProvider(false, authorityRegistry).createToken(createAuthentication(), false);
+
+        Authentication verified = createTokenProvider(true, authorityRegistry).getVerifiedAuthentication(legacyToken).orElseThrow();
+
+        assertThat(verified.getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testCompactEncodingFallsBackToNamesForUnknownAuthorities() {
+        TokenProvider tokenProvider = createTokenProvider(true, createAuthorityRegistry(AuthoritiesConstants.USER));
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody())
+            .containsEntry("auth", AuthoritiesConstants.ANONYMOUS);
+        assertThat(tokenProvider.getVerifiedAuthentication(token)).isPresent();
+    }
+
+    @Test
+    void testCompactAuthoritiesOfOtherAuthoritiesAreRejected() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "user",
+            "user",
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String token = createTokenProvider(true, createAuthorityRegistry(AuthoritiesConstants.USER)).createToken(authentication, false);
+
+        TokenProvider tokenProvider = createTokenProvider(
+            true,
+            createAuthorityRegistry(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)
+        );
+
+        assertThat(tokenProvider.getVerifiedAuthentication(token)).isEmpty();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -96,7 +255,13 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class)),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -110,18 +275,65 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class)),
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    private TokenProvider createTokenProvider(boolean compactAuthorities, AuthorityRegistry authorityRegistry) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getAuthorityClaim().setCompact(compactAuthorities);
+        return new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new SecurityMetersService(new SimpleMeterRegistry()),
+            authorityRegistry,
+            new TokenRevocationList(mock(TokenRevocationRepository.class), new ApplicationProperties(), jHipsterProperties)
+        );
+    }
+
+    private AuthorityRegistry createAuthorityRegistry(String... names) {
+        List<Authority> authorities = new ArrayList<>();
+        for (String name : names) {
+            Authority authority = new Authority();
+            authority.setName(name);
+            authorities.add(authority);
+        }
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(authorities);
+        return new AuthorityRegistry(authorityRepository);
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
         return new UsernamePasswordAuthenticationToken("anonymous", "anonymous", authorities);
     }
 
+    private String createTokenIssuedAt(Date issuedAt) {
+        return Jwts
+            .builder()
+            .setSubject("anonymous")
+            .claim("auth", AuthoritiesConstants.ANONYMOUS)
+            .setIssuedAt(issuedAt)
+            .setExpiration(new Date(System.currentTimeMillis() + ONE_MINUTE))
+            .signWith(key, SignatureAlgorithm.HS512)
+            .compact();
+    }
+
     private String createUnsupportedToken() {
         return Jwts.builder().setPayload("payload").signWith(key, SignatureAlgorithm.HS512).compact();
     }
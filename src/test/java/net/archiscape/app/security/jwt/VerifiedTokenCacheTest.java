@@ -0,0 +1,62 @@
+package net.archiscape.app.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+class VerifiedTokenCacheTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void testReturnsCachedAuthenticationUntilExpiration() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        Authentication authentication = createAuthentication("token");
+
+        cache.put("token", authentication, 42, NOW + 100, NOW);
+
+        assertThat(cache.get("token", NOW).getAuthentication()).isSameAs(authentication);
+        assertThat(cache.get("token", NOW).getIssuedAtInSeconds()).isEqualTo(42);
+        assertThat(cache.get("token", NOW + 99).getAuthentication()).isSameAs(authentication);
+        assertThat(cache.get("token", NOW + 100)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testIgnoresAlreadyExpiredTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.put("token", createAuthentication("token"), 0, NOW, NOW);
+
+        assertThat(cache.get("token", NOW - 1)).isNull();
+    }
+
+    @Test
+    void testStaysBoundedUnderAFloodOfDistinctTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("token-" + i, createAuthentication("token-" + i), 0, NOW + 1000, NOW);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void testClearRemovesAllTheEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("token", createAuthentication("token"), 0, NOW + 1000, NOW);
+
+        cache.clear();
+
+        assertThat(cache.get("token", NOW)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static Authentication createAuthentication(String token) {
+        return new UsernamePasswordAuthenticationToken("user", token, Collections.emptyList());
+    }
+}
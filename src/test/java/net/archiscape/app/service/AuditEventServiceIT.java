@@ -0,0 +1,144 @@
+package net.archiscape.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.CustomAuditEventRepository;
+import net.archiscape.app.repository.PersistenceAuditEventRepository;
+import net.archiscape.app.repository.UserRepository;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+import org.springframework.boot.actuate.security.AuthenticationAuditListener;
+import org.springframework.boot.actuate.security.AuthorizationAuditListener;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Integration tests for {@link AuditEventService}.
+ * <p>
+ * The events being published after commit, the tests run without a transaction of their own.
+ */
+@IntegrationTest
+class AuditEventServiceIT {
+
+    private static final String TEST_PRINCIPAL = "audit-principal";
+
+    @Autowired
+    private AuditEventService auditEventService;
+
+    @Autowired
+    private CustomAuditEventRepository customAuditEventRepository;
+
+    @Autowired
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanUp() {
+        auditEventService.flush();
+        persistenceAuditEventRepository.deleteAll();
+    }
+
+    @Test
+    void assertThatPublishedEventsAreWrittenOnFlush() {
+        for (int i = 0; i < 3; i++) {
+            applicationEventPublisher.publishEvent(new AuditApplicationEvent(TEST_PRINCIPAL, "TEST_EVENT", Map.of("index", i)));
+        }
+
+        auditEventService.flush();
+
+        List<PersistentAuditEvent> events = findAll(TEST_PRINCIPAL, "TEST_EVENT");
+        assertThat(events).hasSize(3);
+        assertThat(events).extracting(event -> event.getData().get("index")).containsExactlyInAnyOrder("0", "1", "2");
+        assertThat(events).allSatisfy(event -> assertThat(event.getAuditEventDate()).isNotNull());
+    }
+
+    @Test
+    void assertThatFailedAuthenticationsAreAudited() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken("admin", "wrong password");
+        token.setDetails(new WebAuthenticationDetails(request));
+
+        assertThatThrownBy(() -> authenticationManagerBuilder.getObject().authenticate(token))
+            .isInstanceOf(BadCredentialsException.class);
+        auditEventService.flush();
+
+        assertThat(findAll("admin", AuthenticationAuditListener.AUTHENTICATION_FAILURE))
+            .singleElement()
+            .satisfies(event -> assertThat(event.getData()).containsEntry("remoteAddress", "10.0.0.1"));
+    }
+
+    @Test
+    void assertThatDeletedUsersAreAudited() {
+        User user = new User();
+        user.setLogin("audit-" + RandomStringUtils.randomAlphabetic(5).toLowerCase());
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail(user.getLogin() + "@localhost");
+        user.setLangKey("en");
+        userRepository.saveAndFlush(user);
+
+        userService.deleteUser(user.getLogin());
+        auditEventService.flush();
+
+        assertThat(findAll("system", UserService.USER_DELETED_EVENT_TYPE))
+            .singleElement()
+            .satisfies(event -> assertThat(event.getData()).containsEntry("login", user.getLogin()));
+    }
+
+    @Test
+    void assertThatAnonymousAuthorizationFailuresAreIgnored() {
+        customAuditEventRepository.add(new AuditEvent("anonymousUser", AuthorizationAuditListener.AUTHORIZATION_FAILURE));
+
+        auditEventService.flush();
+
+        assertThat(findAll("anonymousUser", AuthorizationAuditListener.AUTHORIZATION_FAILURE)).isEmpty();
+    }
+
+    @Test
+    void assertThatLongPrincipalsAreTruncated() {
+        customAuditEventRepository.add(new AuditEvent("a".repeat(100), "TEST_EVENT", Map.of("value", "b".repeat(1000))));
+
+        auditEventService.flush();
+
+        assertThat(findAll("a".repeat(50), "TEST_EVENT"))
+            .singleElement()
+            .satisfies(event -> assertThat(event.getData().get("value")).hasSize(255));
+    }
+
+    private List<PersistentAuditEvent> findAll(String principal, String type) {
+        return persistenceAuditEventRepository
+            .findAll()
+            .stream()
+            .filter(event -> principal.equals(event.getPrincipal()) && type.equals(event.getAuditEventType()))
+            .collect(Collectors.toList());
+    }
+}
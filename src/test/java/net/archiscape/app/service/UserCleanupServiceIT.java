@@ -0,0 +1,171 @@
+package net.archiscape.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.config.ApplicationProperties;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.AuthorityRepository;
+import net.archiscape.app.repository.SchedulerLockRepository;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.security.AuthoritiesConstants;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link UserCleanupService}.
+ */
+@IntegrationTest
+@Transactional
+class UserCleanupServiceIT {
+
+    private static final String DEFAULT_LOGIN = "johndoe";
+
+    private static final String DEFAULT_EMAIL = "johndoe@localhost";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserCleanupService userCleanupService;
+
+    @Autowired
+    private AuditingHandler auditingHandler;
+
+    @MockBean
+    private DateTimeProvider dateTimeProvider;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        user = createUser(DEFAULT_LOGIN, DEFAULT_EMAIL);
+
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(LocalDateTime.now()));
+        auditingHandler.setDateTimeProvider(dateTimeProvider);
+    }
+
+    private static User createUser(String login, String email) {
+        User user = new User();
+        user.setLogin(login);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(email);
+        user.setLangKey("dummy");
+        return user;
+    }
+
+    @Test
+    void assertThatNotActivatedUsersWithNotNullActivationKeyCreatedBefore3DaysAreDeleted() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        user.setActivated(false);
+        user.setActivationKey(RandomStringUtils.random(20));
+        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(user.getAuthorities()::add);
+        User dbUser = userRepository.saveAndFlush(user);
+        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+        userRepository.saveAndFlush(user);
+        Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
+        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
+        assertThat(users).isNotEmpty();
+        userCleanupService.removeNotActivatedUsers();
+        users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
+        assertThat(users).isEmpty();
+    }
+
+    @Test
+    void assertThatNotActivatedUsersWithNullActivationKeyCreatedBefore3DaysAreNotDeleted() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        user.setActivated(false);
+        User dbUser = userRepository.saveAndFlush(user);
+        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+        userRepository.saveAndFlush(user);
+        Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
+        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
+        assertThat(users).isEmpty();
+        userCleanupService.removeNotActivatedUsers();
+        Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
+        assertThat(maybeDbUser).contains(dbUser);
+    }
+
+    @Test
+    void assertThatNotActivatedUsersAreDeletedByChunks() {
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(Instant.now().minus(4, ChronoUnit.DAYS)));
+        for (int i = 0; i < 5; i++) {
+            User notActivatedUser = createUser(DEFAULT_LOGIN + i, i + DEFAULT_EMAIL);
+            notActivatedUser.setActivated(false);
+            notActivatedUser.setActivationKey(RandomStringUtils.random(20));
+            userRepository.saveAndFlush(notActivatedUser);
+        }
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserCleanupService chunkedUserCleanupService = createUserCleanupService(2, meterRegistry);
+
+        chunkedUserCleanupService.removeNotActivatedUsers();
+
+        assertThat(userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now())).isEmpty();
+        assertThat(meterRegistry.get(UserCleanupService.DELETED_USERS_METER_NAME).counter().count()).isEqualTo(5);
+        assertThat(
+            meterRegistry
+                .get(UserCleanupService.DURATION_METER_NAME)
+                .tag(UserCleanupService.DURATION_METER_OUTCOME_DIMENSION, "completed")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void assertThatNotActivatedUsersAreNotDeletedWhileAnotherNodeHoldsTheLock() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        user.setActivated(false);
+        user.setActivationKey(RandomStringUtils.random(20));
+        userRepository.saveAndFlush(user);
+        Instant lockUntil = now.plus(1, ChronoUnit.HOURS);
+        assertThat(schedulerLockRepository.tryLock(UserCleanupService.LOCK_NAME, now, lockUntil, "other-node")).isTrue();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        createUserCleanupService(2, meterRegistry).removeNotActivatedUsers();
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN)).isPresent();
+        assertThat(
+            meterRegistry
+                .get(UserCleanupService.DURATION_METER_NAME)
+                .tag(UserCleanupService.DURATION_METER_OUTCOME_DIMENSION, "skipped")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    private UserCleanupService createUserCleanupService(int chunkSize, MeterRegistry meterRegistry) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUserCleanup().setChunkSize(chunkSize);
+        return new UserCleanupService(userRepository, schedulerLockRepository, transactionManager, meterRegistry, applicationProperties);
+    }
+}
@@ -0,0 +1,119 @@
+package net.archiscape.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.Authority;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.security.AuthoritiesConstants;
+import net.archiscape.app.service.dto.UserImportResultDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link UserImportService}.
+ */
+@IntegrationTest
+@Transactional
+class UserImportServiceIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Test
+    void assertThatValidCsvRowsAreImported() throws IOException {
+        String csv =
+            "login,email,firstName,lastName,langKey,authorities\r\n" +
+            "Import-1,Import-1@localhost,John,Doe,en,\"ROLE_USER,ROLE_ADMIN\"\r\n" +
+            "import-2,import-2@localhost,\"Doe, Jane\",,,\r\n";
+
+        UserImportResultDTO result = userImportService.importUsers(toStream(csv), UserImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isZero();
+        User first = userRepository.findOneWithAuthoritiesByLogin("import-1").orElseThrow();
+        assertThat(first.getEmail()).isEqualTo("import-1@localhost");
+        assertThat(first.isActivated()).isTrue();
+        assertThat(first.getResetKey()).isNull();
+        assertThat(first.getCreatedDate()).isNotNull();
+        assertThat(first.getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        User second = userRepository.findOneWithAuthoritiesByLogin("import-2").orElseThrow();
+        assertThat(second.getFirstName()).isEqualTo("Doe, Jane");
+        assertThat(second.getLangKey()).isNotNull();
+        assertThat(second.getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void assertThatInvalidRowsAreRejected() throws IOException {
+        String csv =
+            "login,email,authorities\n" +
+            "import-1,import-1@localhost,ROLE_USER\n" +
+            "import-2,not-an-email,ROLE_USER\n" +
+            "IMPORT-1,import-3@localhost,ROLE_USER\n" +
+            "admin,import-4@localhost,ROLE_USER\n" +
+            "import-5,admin@localhost,ROLE_USER\n" +
+            "import-6,import-6@localhost,ROLE_UNKNOWN\n";
+
+        UserImportResultDTO result = userImportService.importUsers(toStream(csv), UserImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(UserImportResultDTO.RowError::getLine).containsExactlyInAnyOrder(3L, 4L, 5L, 6L, 7L);
+        assertThat(result.getErrors())
+            .filteredOn(error -> error.getLine() == 7)
+            .extracting(UserImportResultDTO.RowError::getMessage)
+            .containsExactly("Unknown authority ROLE_UNKNOWN");
+        assertThat(userRepository.findOneByLogin("import-1")).isPresent();
+        assertThat(userRepository.findOneByLogin("import-5")).isNotPresent();
+    }
+
+    @Test
+    void assertThatGzippedNdjsonIsImported() throws IOException {
+        String ndjson =
+            "{\"login\":\"import-1\",\"email\":\"import-1@localhost\",\"authorities\":[\"ROLE_USER\"]}\n" +
+            "{\"login\":\n" +
+            "{\"login\":\"import-2\",\"email\":\"import-2@localhost\"}\n";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+
+        UserImportResultDTO result = userImportService.importUsers(
+            new ByteArrayInputStream(bytes.toByteArray()),
+            UserImportService.Format.NDJSON
+        );
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportResultDTO.RowError::getLine).containsExactly(2L);
+        assertThat(userRepository.findOneWithAuthoritiesByLogin("import-1").orElseThrow().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+        assertThat(userRepository.findOneByLogin("import-2")).isPresent();
+    }
+
+    @Test
+    void assertThatCsvWithoutLoginColumnIsRejected() throws IOException {
+        UserImportResultDTO result = userImportService.importUsers(toStream("email\nimport@localhost\n"), UserImportService.Format.CSV);
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getErrors()).extracting(UserImportResultDTO.RowError::getLine).containsExactly(1L);
+    }
+
+    private static InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
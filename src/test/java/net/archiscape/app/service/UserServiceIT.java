@@ -1,19 +1,28 @@
 package net.archiscape.app.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
 import net.archiscape.app.IntegrationTest;
 import net.archiscape.app.config.Constants;
+import net.archiscape.app.domain.Authority;
 import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.Keyset;
 import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.security.AuthoritiesConstants;
 import net.archiscape.app.service.dto.AdminUserDTO;
+import net.archiscape.app.service.dto.UserDTO;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Session;
+import org.hibernate.stat.SessionStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +31,8 @@ import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -50,6 +61,12 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
@@ -150,36 +167,95 @@ class UserServiceIT {
 
     @Test
     @Transactional
-    void assertThatNotActivatedUsersWithNotNullActivationKeyCreatedBefore3DaysAreDeleted() {
-        Instant now = Instant.now();
-        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+    void assertThatRegisteringRemovesNotActivatedUserWithSameLoginOrEmail() {
         user.setActivated(false);
-        user.setActivationKey(RandomStringUtils.random(20));
         User dbUser = userRepository.saveAndFlush(user);
-        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+        User otherUser = new User();
+        otherUser.setLogin("other-" + DEFAULT_LOGIN);
+        otherUser.setPassword(RandomStringUtils.random(60));
+        otherUser.setEmail("other-" + DEFAULT_EMAIL);
+        otherUser.setLangKey(DEFAULT_LANGKEY);
+        User otherDbUser = userRepository.saveAndFlush(otherUser);
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail("OTHER-" + DEFAULT_EMAIL);
+
+        User registeredUser = userService.registerUser(userDTO, "password");
+
+        assertThat(userRepository.findById(dbUser.getId())).isNotPresent();
+        assertThat(userRepository.findById(otherDbUser.getId())).isNotPresent();
+        assertThat(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail())).map(User::getId).contains(registeredUser.getId());
+    }
+
+    @Test
+    @Transactional
+    void assertThatRegisteringWithActivatedUserEmailFails() {
         userRepository.saveAndFlush(user);
-        Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
-        users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isEmpty();
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin("other-" + DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL.toUpperCase());
+
+        assertThatThrownBy(() -> userService.registerUser(userDTO, "password")).isInstanceOf(EmailAlreadyUsedException.class);
     }
 
     @Test
     @Transactional
-    void assertThatNotActivatedUsersWithNullActivationKeyCreatedBefore3DaysAreNotDeleted() {
-        Instant now = Instant.now();
-        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
-        user.setActivated(false);
-        User dbUser = userRepository.saveAndFlush(user);
-        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+    void assertThatUniqueConstraintViolationIsReportedAsConflict() {
+        // a row missed by the conflict check, as if it had been inserted concurrently
+        jdbcTemplate.update(
+            "insert into jhi_user (login, password_hash, email, activated, created_by) values (?, ?, ?, ?, ?)",
+            "concurrent",
+            RandomStringUtils.random(60),
+            DEFAULT_EMAIL,
+            true,
+            Constants.SYSTEM
+        );
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+
+        assertThatThrownBy(() -> userService.createUser(userDTO)).isInstanceOf(EmailAlreadyUsedException.class);
+    }
+
+    @Test
+    @Transactional
+    void assertThatCreatedUserHasItsKnownAuthorities() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN"));
+
+        userService.createUser(userDTO);
+        em.clear();
+
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).orElseThrow().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+        assertThat(userService.getAuthorities()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
+    @Test
+    @Transactional
+    void assertThatListingUsersDoesNotLoadEntities() {
         userRepository.saveAndFlush(user);
-        Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
-        Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
-        assertThat(maybeDbUser).contains(dbUser);
+        em.clear();
+
+        Page<AdminUserDTO> managedUsers = userService.getAllManagedUsers(PageRequest.of(0, 100, Sort.by("login")));
+        assertThat(managedUsers.getContent()).extracting(AdminUserDTO::getLogin).contains(DEFAULT_LOGIN, "admin");
+        AdminUserDTO admin = managedUsers.getContent().stream().filter(dto -> dto.getLogin().equals("admin")).findFirst().orElseThrow();
+        assertThat(admin.getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(userService.getAllPublicUsers(PageRequest.of(0, 100)).getContent())
+            .extracting(UserDTO::getLogin)
+            .contains(DEFAULT_LOGIN);
+        assertThat(userService.getAllManagedUsers(Keyset.first("login", Sort.Direction.ASC), 100).getContent())
+            .extracting(AdminUserDTO::getLogin)
+            .containsExactlyElementsOf(managedUsers.getContent().stream().map(AdminUserDTO::getLogin).collect(Collectors.toList()));
+        assertThat(userService.getAllPublicUsers(Keyset.first("id", Sort.Direction.ASC), 100).getContent())
+            .extracting(UserDTO::getLogin)
+            .contains(DEFAULT_LOGIN);
+
+        SessionStatistics statistics = em.unwrap(Session.class).getStatistics();
+        assertThat(statistics.getEntityCount()).isZero();
+        assertThat(statistics.getCollectionCount()).isZero();
     }
 }
@@ -0,0 +1,106 @@
+package net.archiscape.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RingBuffer}.
+ */
+class RingBufferTest {
+
+    @Test
+    void testCapacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new RingBuffer<>(1).capacity()).isEqualTo(2);
+        assertThat(new RingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<>(1000).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void testElementsArePolledInOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer(i)).isTrue();
+            }
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.poll()).isEqualTo(i);
+            }
+            assertThat(buffer.poll()).isNull();
+        }
+    }
+
+    @Test
+    void testOfferIsRejectedWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            buffer.offer(i);
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        buffer.poll();
+
+        assertThat(buffer.offer(4)).isTrue();
+    }
+
+    @Test
+    void testDrainToIsBounded() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertThat(buffer.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(buffer.drainTo(drained, 3)).isEqualTo(2);
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void testConcurrentProducersLoseNoAcceptedElement() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        int producers = 4;
+        int elementsPerProducer = 10000;
+        AtomicInteger rejected = new AtomicInteger();
+        Set<Integer> consumed = new HashSet<>();
+        CountDownLatch done = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int first = p * elementsPerProducer;
+                executor.execute(() -> {
+                    for (int i = first; i < first + elementsPerProducer; i++) {
+                        if (!buffer.offer(i)) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            while (done.getCount() > 0 || buffer.size() > 0) {
+                Integer element = buffer.poll();
+                if (element != null) {
+                    assertThat(consumed.add(element)).isTrue();
+                }
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(consumed.size() + rejected.get()).isEqualTo(producers * elementsPerProducer);
+    }
+}
@@ -0,0 +1,57 @@
+package net.archiscape.app.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Unit tests for {@link TransactionUtils}.
+ */
+class TransactionUtilsTest {
+
+    @Test
+    void testAfterCommitRunsImmediatelyWithoutTransaction() {
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionUtils.afterCommit(runs::incrementAndGet);
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void testAfterCommitWaitsForTheCommit() {
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionUtils.afterCommit(runs::incrementAndGet);
+            assertThat(runs).hasValue(0);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void testAfterCommitIsDroppedOnRollback() {
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionUtils.afterCommit(runs::incrementAndGet);
+
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(runs).hasValue(0);
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -436,6 +437,74 @@ class AccountResourceIT {
         assertThat(updatedUser.getAuthorities()).isEmpty();
     }
 
+    @Test
+    @Transactional
+    @WithMockUser("get-account-not-modified")
+    void testGetAccountNotModified() throws Exception {
+        User user = new User();
+        user.setLogin("get-account-not-modified");
+        user.setEmail("get-account-not-modified@example.com");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+
+        String entityTag = restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + user.getId() + "-" + user.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, entityTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("save-account-if-match")
+    void testSaveAccountIfMatch() throws Exception {
+        User user = new User();
+        user.setLogin("save-account-if-match");
+        user.setEmail("save-account-if-match@example.com");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+        long version = user.getVersion();
+        String entityTag = "\"" + user.getId() + "-" + version + "\"";
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin("save-account-if-match");
+        userDTO.setFirstName("firstname");
+        userDTO.setEmail("save-account-if-match@example.com");
+        userDTO.setLangKey(Constants.DEFAULT_LANGUAGE);
+
+        restAccountMockMvc
+            .perform(
+                post("/api/account")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + user.getId() + "-" + (version + 1) + "\""));
+
+        // the user was modified since the entity tag was read
+        userDTO.setFirstName("other-firstname");
+        restAccountMockMvc
+            .perform(
+                post("/api/account")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(userRepository.findOneByLogin(user.getLogin())).map(User::getFirstName).contains("firstname");
+    }
+
     @Test
     @Transactional
     @WithMockUser("save-invalid-email")
@@ -0,0 +1,133 @@
+package net.archiscape.app.web.rest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.PersistentAuditEvent;
+import net.archiscape.app.repository.PersistenceAuditEventRepository;
+import net.archiscape.app.security.AuthoritiesConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link AuditResource} REST controller.
+ */
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@IntegrationTest
+@Transactional
+class AuditResourceIT {
+
+    private static final String SAMPLE_PRINCIPAL = "SAMPLE_PRINCIPAL";
+    private static final String SAMPLE_TYPE = "SAMPLE_TYPE";
+    private static final Instant SAMPLE_TIMESTAMP = Instant.parse("2015-08-04T10:11:30Z");
+
+    @Autowired
+    private PersistenceAuditEventRepository auditEventRepository;
+
+    @Autowired
+    private MockMvc restAuditMockMvc;
+
+    private PersistentAuditEvent auditEvent;
+
+    @BeforeEach
+    public void initTest() {
+        auditEventRepository.deleteAll();
+        auditEvent = new PersistentAuditEvent();
+        auditEvent.setAuditEventType(SAMPLE_TYPE);
+        auditEvent.setPrincipal(SAMPLE_PRINCIPAL);
+        auditEvent.setAuditEventDate(SAMPLE_TIMESTAMP);
+        auditEvent.setData(new HashMap<>(Map.of("login", "johndoe")));
+    }
+
+    @Test
+    void getAllAudits() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+
+        // Get all the audits
+        restAuditMockMvc
+            .perform(get("/api/admin/audits"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)))
+            .andExpect(jsonPath("$.[*].type").value(hasItem(SAMPLE_TYPE)))
+            .andExpect(jsonPath("$.[*].data.login").value(hasItem("johndoe")));
+    }
+
+    @Test
+    void getAllAuditsLatestFirst() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent latestEvent = new PersistentAuditEvent();
+        latestEvent.setAuditEventType(SAMPLE_TYPE);
+        latestEvent.setPrincipal("LATEST_PRINCIPAL");
+        latestEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusSeconds(3600));
+        auditEventRepository.save(latestEvent);
+
+        // The events of the day, leaving out the ones written in the background meanwhile
+        String date = LocalDate.ofInstant(SAMPLE_TIMESTAMP, ZoneOffset.UTC).toString();
+
+        restAuditMockMvc
+            .perform(get("/api/admin/audits?fromDate=" + date + "&toDate=" + date))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].principal").value("LATEST_PRINCIPAL"))
+            .andExpect(jsonPath("$.[1].principal").value(SAMPLE_PRINCIPAL));
+    }
+
+    @Test
+    void getAuditsByDates() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+
+        // The date of the event, and the next day
+        String fromDate = LocalDate.ofInstant(SAMPLE_TIMESTAMP, ZoneOffset.UTC).toString();
+        String toDate = LocalDate.ofInstant(SAMPLE_TIMESTAMP, ZoneOffset.UTC).plusDays(1).toString();
+
+        restAuditMockMvc
+            .perform(get("/api/admin/audits?fromDate=" + fromDate + "&toDate=" + toDate))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)));
+    }
+
+    @Test
+    void getNonExistingAuditsByDates() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+
+        // The two days before the event
+        String fromDate = LocalDate.ofInstant(SAMPLE_TIMESTAMP, ZoneOffset.UTC).minusDays(2).toString();
+        String toDate = LocalDate.ofInstant(SAMPLE_TIMESTAMP, ZoneOffset.UTC).minusDays(1).toString();
+
+        restAuditMockMvc
+            .perform(get("/api/admin/audits?fromDate=" + fromDate + "&toDate=" + toDate))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"))
+            .andExpect(jsonPath("$.[*].principal").value(not(hasItem(SAMPLE_PRINCIPAL))));
+    }
+
+    @Test
+    void getAllAuditsWithUnknownSort() throws Exception {
+        restAuditMockMvc.perform(get("/api/admin/audits?sort=data,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllAuditsAsUser() throws Exception {
+        restAuditMockMvc.perform(get("/api/admin/audits")).andExpect(status().isForbidden());
+    }
+}
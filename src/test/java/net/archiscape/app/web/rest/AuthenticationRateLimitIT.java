@@ -0,0 +1,73 @@
+package net.archiscape.app.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.web.rest.vm.LoginVM;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the rate limits of the {@link UserJWTController} REST controller.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+@TestPropertySource(
+    properties = { "application.security.rate-limit.enabled=true", "application.security.rate-limit.authentication.per-login.capacity=2" }
+)
+class AuthenticationRateLimitIT {
+
+    private static final String LOGIN = "rate-limited-user";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @Transactional
+    void testAuthorizeIsRejectedBeyondTheRateLimit() throws Exception {
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setEmail(LOGIN + "@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+
+        authorize("wrong password").andExpect(status().isUnauthorized());
+        authorize("test").andExpect(status().isOk());
+
+        // even the right password is rejected, without being verified
+        authorize("test")
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+            .andExpect(jsonPath("$.message").value("error.http.429"))
+            .andExpect(jsonPath("$.id_token").doesNotExist());
+    }
+
+    private ResultActions authorize(String password) throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername(LOGIN);
+        login.setPassword(password);
+        return mockMvc.perform(
+            post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login))
+        );
+    }
+}
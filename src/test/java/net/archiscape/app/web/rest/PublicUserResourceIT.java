@@ -2,6 +2,7 @@ package net.archiscape.app.web.rest;
 
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -62,6 +64,24 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").doesNotExist());
     }
 
+    @Test
+    @Transactional
+    void getAllPublicUsersWithCursor() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        User deactivated = UserResourceIT.createEntity(em);
+        deactivated.setActivated(false);
+        userRepository.saveAndFlush(deactivated);
+
+        restUserMockMvc
+            .perform(get("/api/users?cursor=&size=100&count=true&sort=login,asc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)))
+            .andExpect(jsonPath("$.[*].login").value(not(hasItem(deactivated.getLogin()))))
+            .andExpect(header().string("X-Total-Count", String.valueOf(userRepository.countByActivatedIsTrue())))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
     @Test
     @Transactional
     void getAllAuthorities() throws Exception {
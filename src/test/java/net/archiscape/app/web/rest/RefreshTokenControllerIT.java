@@ -0,0 +1,147 @@
+package net.archiscape.app.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.jayway.jsonpath.JsonPath;
+import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.UserRepository;
+import net.archiscape.app.web.rest.vm.LoginVM;
+import net.archiscape.app.web.rest.vm.RefreshTokenVM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link RefreshTokenController} REST controller.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+@Transactional
+class RefreshTokenControllerIT {
+
+    private static final String LOGIN = "refresh-token-controller";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setEmail("refresh-token-controller@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+    }
+
+    @Test
+    void testAuthorize() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername(LOGIN);
+        login.setPassword("test");
+
+        mockMvc
+            .perform(post("/api/token").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(jsonPath("$.refresh_token").isNotEmpty())
+            .andExpect(jsonPath("$.expires_in").value(300))
+            .andExpect(header().exists("Authorization"));
+    }
+
+    @Test
+    void testAuthorizeFails() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername(LOGIN);
+        login.setPassword("wrong password");
+
+        mockMvc
+            .perform(post("/api/token").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.refresh_token").doesNotExist());
+    }
+
+    @Test
+    void testRefreshRotatesRefreshToken() throws Exception {
+        String refreshToken = authorize();
+
+        ResultActions resultActions = refresh(refreshToken)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(header().exists("Authorization"));
+        String rotated = refreshToken(resultActions);
+
+        assertThat(rotated).isNotEqualTo(refreshToken);
+        refresh(rotated).andExpect(status().isOk());
+    }
+
+    @Test
+    void testReusedRefreshTokenRevokesItsFamily() throws Exception {
+        String refreshToken = authorize();
+        String rotated = refreshToken(refresh(refreshToken).andExpect(status().isOk()));
+
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+
+        refresh(rotated).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRefreshWithUnknownTokenFails() throws Exception {
+        refresh("unknown-refresh-token").andExpect(status().isUnauthorized()).andExpect(jsonPath("$.id_token").doesNotExist());
+    }
+
+    @Test
+    void testRevokedRefreshTokenCannotBeUsed() throws Exception {
+        String refreshToken = authorize();
+        RefreshTokenVM refreshTokenVM = new RefreshTokenVM();
+        refreshTokenVM.setRefreshToken(refreshToken);
+
+        mockMvc
+            .perform(
+                post("/api/token/revoke").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(refreshTokenVM))
+            )
+            .andExpect(status().isNoContent());
+
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    private String authorize() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername(LOGIN);
+        login.setPassword("test");
+        return refreshToken(
+            mockMvc
+                .perform(post("/api/token").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+                .andExpect(status().isOk())
+        );
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        RefreshTokenVM refreshTokenVM = new RefreshTokenVM();
+        refreshTokenVM.setRefreshToken(refreshToken);
+        return mockMvc.perform(
+            post("/api/token/refresh").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(refreshTokenVM))
+        );
+    }
+
+    private static String refreshToken(ResultActions resultActions) throws Exception {
+        return JsonPath.read(resultActions.andReturn().getResponse().getContentAsString(), "$.refresh_token");
+    }
+}
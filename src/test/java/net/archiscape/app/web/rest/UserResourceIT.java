@@ -1,32 +1,49 @@
 package net.archiscape.app.web.rest;
 
+import static net.archiscape.app.config.StatementCountMatchers.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import net.archiscape.app.IntegrationTest;
+import net.archiscape.app.config.CountStatements;
 import net.archiscape.app.domain.Authority;
 import net.archiscape.app.domain.User;
+import net.archiscape.app.repository.Keyset;
+import net.archiscape.app.repository.UserActivity;
 import net.archiscape.app.repository.UserRepository;
 import net.archiscape.app.security.AuthoritiesConstants;
 import net.archiscape.app.service.dto.AdminUserDTO;
 import net.archiscape.app.service.dto.UserDTO;
 import net.archiscape.app.service.mapper.UserMapper;
+import net.archiscape.app.web.rest.errors.ErrorConstants;
 import net.archiscape.app.web.rest.vm.ManagedUserVM;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -35,6 +52,7 @@ import org.springframework.transaction.annotation.Transactional;
 @AutoConfigureMockMvc
 @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
 @IntegrationTest
+@CountStatements
 class UserResourceIT {
 
     private static final String DEFAULT_LOGIN = "johndoe";
@@ -249,6 +267,186 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    void getAllUsersStatementCount() throws Exception {
+        // Initialize the database with many more users than the tolerance, each with an authority to load
+        Authority authority = em.getReference(Authority.class, AuthoritiesConstants.USER);
+        user.getAuthorities().add(authority);
+        userRepository.saveAndFlush(user);
+        for (int i = 0; i < 20; i++) {
+            User other = createEntity(em);
+            other.getAuthorities().add(authority);
+            userRepository.saveAndFlush(other);
+        }
+        // The request must not find the users in the persistence context of the test
+        em.flush();
+        em.clear();
+
+        // The page, its count and the authorities of its users
+        ResultActions result = restUserMockMvc
+            .perform(get("/api/admin/users?size=50").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(statements().atMost(3))
+            .andExpect(selects().atMost(3))
+            .andExpect(updates().isEqualTo(0));
+
+        // The failures list the statements with their call sites
+        assertThatThrownBy(() -> result.andExpect(selects().atMost(0)))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Expected at most 0 SELECT statements")
+            .hasMessageContaining("jhi_user")
+            .hasMessageContaining("UserService.getAllManagedUsers");
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersSortedByLastLoginDate() throws Exception {
+        // Initialize the database, with an activity later than any login of the other tests
+        userRepository.saveAndFlush(user);
+        Instant lastLoginDate = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        userRepository.updateActivities(List.of(UserActivity.login(DEFAULT_LOGIN, lastLoginDate)));
+
+        restUserMockMvc
+            .perform(get("/api/admin/users?sort=lastLoginDate,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].login").value(DEFAULT_LOGIN))
+            .andExpect(jsonPath("$.[0].lastLoginDate").value(lastLoginDate.toString()))
+            .andExpect(jsonPath("$.[0].lastSeenDate").value(lastLoginDate.toString()));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithCursor() throws Exception {
+        // Initialize the database, with ties and null values on the sort key
+        userRepository.saveAndFlush(user);
+        for (int i = 0; i < 4; i++) {
+            User other = createEntity(em);
+            other.setLastName(i % 2 == 0 ? DEFAULT_LASTNAME : null);
+            userRepository.saveAndFlush(other);
+        }
+
+        for (Sort sort : Arrays.asList(Sort.by("login"), Sort.by(Sort.Direction.DESC, "lastName"), Sort.by("lastName"))) {
+            Sort.Order order = sort.iterator().next();
+            List<Long> expectedIds = userRepository
+                .findAll(sort.and(Sort.by(order.getDirection(), "id")))
+                .stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+
+            // Walk forward through all the pages
+            List<Long> ids = new ArrayList<>();
+            MvcResult result = restUserMockMvc
+                .perform(get("/api/admin/users?cursor=&size=2&sort=" + order.getProperty() + "," + order.getDirection()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn();
+            assertThat(getLink(result, "prev")).isNull();
+            ids.addAll(getIds(result));
+            while (getLink(result, "next") != null) {
+                result = restUserMockMvc.perform(get(getLink(result, "next"))).andExpect(status().isOk()).andReturn();
+                ids.addAll(getIds(result));
+            }
+            assertThat(ids).containsExactlyElementsOf(expectedIds);
+
+            // Walk backward from the last page
+            List<Long> backwardIds = new ArrayList<>(getIds(result));
+            while (getLink(result, "prev") != null) {
+                result = restUserMockMvc.perform(get(getLink(result, "prev"))).andExpect(status().isOk()).andReturn();
+                backwardIds.addAll(0, getIds(result));
+            }
+            assertThat(backwardIds).containsExactlyElementsOf(expectedIds);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithCursorAndCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        restUserMockMvc
+            .perform(get("/api/admin/users?cursor=&size=1&count=true&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(DEFAULT_LOGIN))
+            .andExpect(header().string("X-Total-Count", String.valueOf(userRepository.count())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithInvalidCursor() throws Exception {
+        restUserMockMvc.perform(get("/api/admin/users?cursor=invalid")).andExpect(status().isBadRequest());
+        restUserMockMvc.perform(get("/api/admin/users?cursor=&sort=login,asc&sort=email,asc")).andExpect(status().isBadRequest());
+        // a cursor on a property the list can't be sorted by
+        String cursor = Keyset.first("password", Sort.Direction.ASC).after("a", 1L).encode();
+        restUserMockMvc.perform(get("/api/admin/users?cursor=" + cursor)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUsersAsNdjson() throws Exception {
+        // The export runs in its own transaction: only the users of the initial schema are visible
+        MvcResult result = restUserMockMvc.perform(get("/api/admin/users/export")).andExpect(request().asyncStarted()).andReturn();
+        // the export has its own timeout, instead of the one of the other asynchronous requests
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(TimeUnit.MINUTES.toMillis(10));
+        result = restUserMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("users.ndjson")))
+            .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize((int) userRepository.count());
+        String login = JsonPath.read(lines[0], "$.login");
+        List<String> authorities = JsonPath.read(lines[0], "$.authorities");
+        assertThat(login).isEqualTo("admin");
+        assertThat(authorities).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        login = JsonPath.read(lines[1], "$.login");
+        assertThat(login).isEqualTo("user");
+    }
+
+    @Test
+    void exportUsersAsCsv() throws Exception {
+        MvcResult result = restUserMockMvc
+            .perform(get("/api/admin/users/export?format=csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result = restUserMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\r\n");
+        assertThat(lines).hasSize((int) userRepository.count() + 1);
+        assertThat(lines[0]).startsWith("id,login,");
+        assertThat(lines[1]).startsWith("1,admin,Administrator,Administrator,admin@localhost,,true,en,system,").endsWith(
+            ",\"ROLE_ADMIN,ROLE_USER\""
+        );
+    }
+
+    @Test
+    void exportUsersWithUnknownFormat() throws Exception {
+        restUserMockMvc.perform(get("/api/admin/users/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void importUsers() throws Exception {
+        String csv = "login,email,authorities\nimport-1,import-1@localhost,ROLE_USER\nadmin,import-2@localhost,ROLE_USER\n";
+
+        restUserMockMvc
+            .perform(post("/api/admin/users/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(3))
+            .andExpect(jsonPath("$.errors[0].login").value("admin"));
+
+        assertThat(userRepository.findOneByLogin("import-1")).isPresent();
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {
@@ -274,6 +472,85 @@ class UserResourceIT {
         restUserMockMvc.perform(get("/api/admin/users/unknown")).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getUserNotModified() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        String entityTag = restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + user.getId() + "-" + user.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()).header(HttpHeaders.IF_NONE_MATCH, entityTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void updateUserIfMatch() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        long version = user.getVersion();
+        String entityTag = "\"" + user.getId() + "-" + version + "\"";
+
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setFirstName(UPDATED_FIRSTNAME);
+
+        restUserMockMvc
+            .perform(
+                put("/api/admin/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + user.getId() + "-" + (version + 1) + "\""));
+
+        // the user was modified since the entity tag was read
+        userDTO.setLastName(UPDATED_LASTNAME);
+        restUserMockMvc
+            .perform(
+                put("/api/admin/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.message").value(ErrorConstants.ERR_CONCURRENCY_FAILURE));
+
+        assertPersistedUsers(users -> {
+            User testUser = users.stream().filter(usr -> usr.getId().equals(user.getId())).findFirst().get();
+            assertThat(testUser.getFirstName()).isEqualTo(UPDATED_FIRSTNAME);
+            assertThat(testUser.getLastName()).isEqualTo(DEFAULT_LASTNAME);
+        });
+    }
+
+    @Test
+    @Transactional
+    void updateUserIfMatchOtherUser() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setFirstName(UPDATED_FIRSTNAME);
+
+        restUserMockMvc
+            .perform(
+                put("/api/admin/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_MATCH, "\"" + (user.getId() + 1) + "-" + user.getVersion() + "\"")
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void updateUser() throws Exception {
@@ -561,6 +838,20 @@ class UserResourceIT {
         assertThat(authorityA).isEqualTo(authorityB).hasSameHashCodeAs(authorityB);
     }
 
+    private static String getLink(MvcResult result, String relType) {
+        String links = result.getResponse().getHeader(HttpHeaders.LINK);
+        if (links == null) {
+            return null;
+        }
+        Matcher matcher = Pattern.compile("<([^>]*)>; rel=\"" + relType + "\"").matcher(links);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static List<Long> getIds(MvcResult result) throws Exception {
+        List<Number> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[*].id");
+        return ids.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
     private void assertPersistedUsers(Consumer<List<User>> userAssertion) {
         userAssertion.accept(userRepository.findAll());
     }
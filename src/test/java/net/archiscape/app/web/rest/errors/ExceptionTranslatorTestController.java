@@ -2,6 +2,8 @@ package net.archiscape.app.web.rest.errors;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import net.archiscape.app.security.PasswordHashingRejectedException;
+import net.archiscape.app.security.RateLimitExceededException;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
@@ -41,6 +43,16 @@ public class ExceptionTranslatorTestController {
         throw new TestResponseStatusException();
     }
 
+    @GetMapping("/password-hashing-rejected")
+    public void passwordHashingRejected() {
+        throw new PasswordHashingRejectedException("test password hashing rejected", 3);
+    }
+
+    @GetMapping("/rate-limit-exceeded")
+    public void rateLimitExceeded() {
+        throw new RateLimitExceededException("test rate limit exceeded", 42);
+    }
+
     @GetMapping("/internal-server-error")
     public void internalServerError() {
         throw new RuntimeException();